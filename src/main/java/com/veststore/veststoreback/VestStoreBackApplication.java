@@ -2,8 +2,10 @@ package com.veststore.veststoreback;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class VestStoreBackApplication {
 
     public static void main(String[] args) {
@@ -0,0 +1,102 @@
+package com.veststore.veststoreback.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.veststore.veststoreback.service.CatalogVersion;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized catalog responses, stored once per route and catalog generation with their
+ * gzip variant computed up front. An entry whose generation is not the current one is never
+ * served. The generation only counts the writes made by this process, so entries also expire
+ * ttl-ms after being stored: that bounds how long a write made by another instance (or in SQL)
+ * stays invisible here. The cache is bounded by the total size of the stored bodies.
+ */
+public class CatalogResponseCache {
+
+    public record Entry(long generation, String contentType, byte[] identity, byte[] gzip) {
+
+        public byte[] body(boolean gzipped) {
+            return gzipped ? gzip : identity;
+        }
+    }
+
+    private final Cache<String, Entry> entries;
+    private final CatalogVersion catalogVersion;
+    private final int maxEntryBytes;
+    private final Counter hits;
+    private final Counter misses;
+
+    public CatalogResponseCache(CatalogVersion catalogVersion, long maxBytes, int maxEntryBytes, long ttlMs,
+                                MeterRegistry registry) {
+        this.catalogVersion = catalogVersion;
+        this.maxEntryBytes = maxEntryBytes;
+        this.entries = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Entry entry) -> entry.identity().length + entry.gzip().length)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .build();
+        this.hits = Counter.builder("catalog.response.cache").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("catalog.response.cache").tag("result", "miss").register(registry);
+        Gauge.builder("catalog.response.cache.bytes", entries,
+                        cache -> cache.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public long currentGeneration() {
+        return catalogVersion.current();
+    }
+
+    public Entry get(String key) {
+        Entry entry = entries.getIfPresent(key);
+        if (entry == null || entry.generation() != catalogVersion.current()) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    /**
+     * @param generation génération lue avant de construire la réponse
+     * @return l'entrée stockée, ou null si la réponse est trop grosse ou déjà périmée
+     */
+    public Entry put(String key, long generation, String contentType, byte[] body) {
+        // Le catalogue a changé pendant la requête : la réponse peut mélanger deux états
+        if (body.length > maxEntryBytes || generation != catalogVersion.current()) {
+            return null;
+        }
+        Entry entry = new Entry(generation, contentType, body, gzip(body));
+        entries.put(key, entry);
+        return entry;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+        // Compressé une seule fois par génération : le niveau maximal vaut son coût
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,177 @@
+package com.veststore.veststoreback.cache;
+
+import com.veststore.veststoreback.util.ApiFormat;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the public catalog reads (product list, products of a category, category list)
+ * from {@link CatalogResponseCache}: a hit writes the stored bytes, gzipped when the client
+ * accepts it, without reaching the controller or Jackson. A miss streams the response to the
+ * client while keeping a copy, and stores it for the generation read before the request
+ * started if it fits in an entry.
+ * Validators (ETag, Last-Modified) come from {@link ConditionalRequestFilter}, which runs first;
+ * the gzip variant gets its own strong ETag.
+ * Each wire format ({@link ApiFormat}) is stored under its own key; requests that accept
+ * none of them, and batch lookups by ids, go through untouched.
+ */
+public class CatalogResponseCacheFilter extends OncePerRequestFilter {
+
+    public static final String CACHE_STATUS_HEADER = "X-Catalog-Cache";
+
+    private static final Pattern CACHEABLE_PATH =
+            Pattern.compile("/api/products|/api/products/category/\\d+|/api/categories");
+    private static final String KEY_ATTRIBUTE = CatalogResponseCacheFilter.class.getName() + ".key";
+    private static final String GENERATION_ATTRIBUTE = CatalogResponseCacheFilter.class.getName() + ".generation";
+    private static final String FORMAT_ATTRIBUTE = CatalogResponseCacheFilter.class.getName() + ".format";
+
+    private final CatalogResponseCache cache;
+
+    public CatalogResponseCacheFilter(CatalogResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // Une réponse asynchrone se termine dans le dispatch asynchrone : c'est là qu'elle est stockée
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!isAsyncDispatch(request)) {
+            ApiFormat format = cacheableFormat(request);
+            if (format == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            // Hit ou miss, la représentation dépend de ces deux en-têtes
+            if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            }
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            String key = key(request, format);
+            long generation = cache.currentGeneration();
+            CatalogResponseCache.Entry entry = cache.get(key);
+            if (entry != null) {
+                write(request, response, entry);
+                return;
+            }
+            request.setAttribute(KEY_ATTRIBUTE, key);
+            request.setAttribute(GENERATION_ATTRIBUTE, generation);
+            request.setAttribute(FORMAT_ATTRIBUTE, format);
+            response.setHeader(CACHE_STATUS_HEADER, "MISS");
+            response = new TeeResponseWrapper(response, cache.getMaxEntryBytes());
+        }
+
+        TeeResponseWrapper wrapper = WebUtils.getNativeResponse(response, TeeResponseWrapper.class);
+        if (wrapper == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (!request.isAsyncStarted()) {
+                complete(request, wrapper);
+            }
+        }
+    }
+
+    private void complete(HttpServletRequest request, TeeResponseWrapper wrapper) {
+        String contentType = wrapper.getContentType();
+        byte[] body = wrapper.getCapturedBody();
+        if (body != null
+                && wrapper.getStatus() == HttpServletResponse.SC_OK
+                && ((ApiFormat) request.getAttribute(FORMAT_ATTRIBUTE)).produces(contentType)
+                && !wrapper.containsHeader(HttpHeaders.CONTENT_ENCODING)
+                && !wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+            cache.put((String) request.getAttribute(KEY_ATTRIBUTE),
+                    (Long) request.getAttribute(GENERATION_ATTRIBUTE), contentType, body);
+        }
+    }
+
+    private static void write(HttpServletRequest request, HttpServletResponse response,
+                              CatalogResponseCache.Entry entry) throws IOException {
+        boolean gzip = acceptsGzip(request);
+        byte[] body = entry.body(gzip);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(entry.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        String etag = response.getHeader(HttpHeaders.ETAG);
+        if (gzip && etag != null && etag.endsWith("\"") && !etag.startsWith("W/")) {
+            response.setHeader(HttpHeaders.ETAG,
+                    etag.substring(0, etag.length() - 1) + ConditionalRequestFilter.GZIP_ETAG_SUFFIX + "\"");
+        }
+        response.setHeader(CACHE_STATUS_HEADER, "HIT");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+        response.flushBuffer();
+    }
+
+    /**
+     * @return le format négocié, ou null si la requête ne passe pas par le cache
+     */
+    private static ApiFormat cacheableFormat(HttpServletRequest request) {
+        if (!HttpMethod.GET.matches(request.getMethod())
+                || !CACHEABLE_PATH.matcher(request.getRequestURI()).matches()) {
+            return null;
+        }
+        // Chaque combinaison d'ids serait une entrée : le client pourrait évincer les listes chaudes
+        if (request.getParameter("ids") != null) {
+            return null;
+        }
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        ApiFormat format = ApiFormat.negotiate(accept);
+        if (accept == null || format != ApiFormat.JSON) {
+            return format;
+        }
+        // JSON par défaut seulement si le client l'accepte vraiment, sinon le contrôleur répond 406
+        try {
+            return MediaType.parseMediaTypes(accept).stream()
+                    .anyMatch(type -> type.isCompatibleWith(MediaType.APPLICATION_JSON)) ? format : null;
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(String::trim)
+                .anyMatch(coding -> coding.equals("gzip") || coding.startsWith("gzip;") && !coding.matches("gzip;\\s*q=0(\\.0*)?"));
+    }
+
+    // Même format, même route et mêmes paramètres, quel que soit leur ordre dans l'URL
+    private static String key(HttpServletRequest request, ApiFormat format) {
+        String route = format == ApiFormat.JSON ? request.getRequestURI() : format.name() + " " + request.getRequestURI();
+        Map<String, String[]> parameters = new TreeMap<>(request.getParameterMap());
+        if (parameters.isEmpty()) {
+            return route;
+        }
+        return route + "?" + parameters.entrySet().stream()
+                .map(e -> e.getKey() + "=" + String.join(",", e.getValue()))
+                .collect(Collectors.joining("&"));
+    }
+}
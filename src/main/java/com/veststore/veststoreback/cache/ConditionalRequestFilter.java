@@ -0,0 +1,126 @@
+package com.veststore.veststoreback.cache;
+
+import com.veststore.veststoreback.service.CartVersions;
+import com.veststore.veststoreback.service.CatalogVersion;
+import com.veststore.veststoreback.util.ApiFormat;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Conditional GET for the catalog and the carts, answered from versions before any controller
+ * runs. Catalog reads are tagged with the catalog generation; a cart is tagged with its own
+ * version (one primary-key read) and the catalog generation, since it shows stock.
+ * Validators are read before the request is handled, so a response is never labelled with
+ * a version newer than the data it contains. Each wire format ({@link ApiFormat}) of the same
+ * version gets its own ETag.
+ * Cart versions live on the cart row and are the same on every instance. The catalog
+ * generation follows the shared change log (see {@link CatalogVersion}), so a write made on
+ * another instance invalidates validators here within a sequencer plus refresh interval.
+ * Last-Modified comes from the same sources and is honoured by If-Modified-Since, but
+ * If-None-Match always wins when both are sent.
+ */
+public class ConditionalRequestFilter extends OncePerRequestFilter {
+
+    /** Suffixe de l'ETag de la variante gzip : un ETag fort désigne une seule représentation */
+    public static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private static final Pattern CATALOG_PATH = Pattern.compile("/api/(products|categories)(/.*)?");
+    private static final Pattern CART_PATH = Pattern.compile("/api/cart/(\\d+)");
+
+    private final CatalogVersion catalogVersion;
+    private final CartVersions cartVersions;
+
+    public ConditionalRequestFilter(CatalogVersion catalogVersion, CartVersions cartVersions) {
+        this.catalogVersion = catalogVersion;
+        this.cartVersions = cartVersions;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String path = request.getRequestURI();
+        long generation = catalogVersion.current();
+        String formatSuffix = ApiFormat.negotiate(request.getHeader(HttpHeaders.ACCEPT)).getEtagSuffix();
+        String etag;
+        long lastModified;
+        String cacheControl;
+        Matcher cart = CART_PATH.matcher(path);
+        if (cart.matches()) {
+            CartVersions.Version version = cartVersions.current(Long.valueOf(cart.group(1)));
+            etag = "\"k" + catalogVersion.epoch() + "." + version.number() + "." + generation + formatSuffix + "\"";
+            lastModified = Math.max(version.lastModified(), catalogVersion.lastModified());
+            cacheControl = "private, no-cache";
+        } else if (CATALOG_PATH.matcher(path).matches()) {
+            etag = "\"c" + catalogVersion.epoch() + "." + generation + formatSuffix + "\"";
+            lastModified = catalogVersion.lastModified();
+            cacheControl = "no-cache";
+        } else {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, lastModified / 1000 * 1000);
+        // Remplace le no-store de Spring Security : le navigateur garde la réponse et revalide
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        String matched = notModified(request, etag, lastModified);
+        if (matched != null) {
+            // Le 304 reprend l'ETag de la variante que le client détient (identité ou gzip)
+            response.setHeader(HttpHeaders.ETAG, matched);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    /**
+     * @return l'ETag à renvoyer avec le 304, ou null si la réponse complète est nécessaire
+     */
+    private static String notModified(HttpServletRequest request, String etag, long lastModified) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        // If-None-Match prime sur If-Modified-Since (RFC 9110, 13.1.3)
+        if (ifNoneMatch != null) {
+            for (String candidate : ifNoneMatch.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*")) {
+                    return etag;
+                }
+                if (opaque(tag).equals(opaque(etag))) {
+                    return tag.startsWith("W/") ? tag.substring(2) : tag;
+                }
+            }
+            return null;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return ifModifiedSince != -1 && lastModified / 1000 * 1000 <= ifModifiedSince ? etag : null;
+    }
+
+    // Comparaison faible : ni le préfixe W/ ni la variante gzip ne changent la version désignée
+    private static String opaque(String tag) {
+        String value = tag.startsWith("W/") ? tag.substring(2) : tag;
+        if (value.endsWith(GZIP_ETAG_SUFFIX + "\"")) {
+            value = value.substring(0, value.length() - GZIP_ETAG_SUFFIX.length() - 1) + "\"";
+        }
+        return value;
+    }
+}
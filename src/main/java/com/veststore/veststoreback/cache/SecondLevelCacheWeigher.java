@@ -0,0 +1,47 @@
+package com.veststore.veststoreback.cache;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.hibernate.cache.spi.support.AbstractReadWriteAccess;
+
+import java.io.Serializable;
+
+/**
+ * Approximate size in bytes of a Hibernate second-level cache entry, for the regions bounded
+ * by weight in application.conf (policy.maximum.weigher). Binary and text columns are counted
+ * at their length, so an entity carrying a large object (product image) weighs what it costs
+ * on the heap instead of counting as one entry.
+ * Instantiated by the Caffeine JCache provider: public, with a no-arg constructor.
+ */
+public class SecondLevelCacheWeigher implements Weigher<Object, Object> {
+
+    // Clé, enveloppe READ_WRITE, tableau d'état et champs scalaires
+    private static final int ENTRY_OVERHEAD = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        if (value instanceof AbstractReadWriteAccess.Lockable lockable) {
+            value = lockable.getValue();
+        }
+        long weight = ENTRY_OVERHEAD;
+        if (value instanceof CacheEntry entry && entry.getDisassembledState() != null) {
+            for (Serializable field : entry.getDisassembledState()) {
+                weight += weightOf(field);
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    private static long weightOf(Object field) {
+        if (field == null) {
+            return 0;
+        }
+        if (field instanceof byte[] bytes) {
+            return bytes.length;
+        }
+        if (field instanceof CharSequence text) {
+            return 2L * text.length();
+        }
+        return 16;
+    }
+}
@@ -0,0 +1,41 @@
+package com.veststore.veststoreback.config;
+
+import com.veststore.veststoreback.cache.CatalogResponseCache;
+import com.veststore.veststoreback.cache.CatalogResponseCacheFilter;
+import com.veststore.veststoreback.service.CatalogVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Serialized-response cache in front of the catalog reads, see {@link CatalogResponseCacheFilter}.
+ * Disable with application.catalog-cache.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.catalog-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogCacheConfig {
+
+    @Bean
+    public CatalogResponseCache catalogResponseCache(
+            CatalogVersion catalogVersion,
+            MeterRegistry registry,
+            @Value("${application.catalog-cache.max-size-mb:128}") long maxSizeMb,
+            @Value("${application.catalog-cache.max-entry-mb:16}") int maxEntryMb,
+            @Value("${application.catalog-cache.ttl-ms:10000}") long ttlMs) {
+        return new CatalogResponseCache(catalogVersion, maxSizeMb * 1024 * 1024, maxEntryMb * 1024 * 1024, ttlMs, registry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<CatalogResponseCacheFilter> catalogResponseCacheFilter(CatalogResponseCache cache) {
+        FilterRegistrationBean<CatalogResponseCacheFilter> registration =
+                new FilterRegistrationBean<>(new CatalogResponseCacheFilter(cache));
+        registration.addUrlPatterns("/api/products", "/api/products/category/*", "/api/categories");
+        // Après la chaîne de sécurité : CORS, limitation de débit et en-têtes de sécurité s'appliquent aux hits
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE);
+        return registration;
+    }
+}
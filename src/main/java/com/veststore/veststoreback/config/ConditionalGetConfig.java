@@ -0,0 +1,31 @@
+package com.veststore.veststoreback.config;
+
+import com.veststore.veststoreback.cache.ConditionalRequestFilter;
+import com.veststore.veststoreback.service.CartVersions;
+import com.veststore.veststoreback.service.CatalogVersion;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * ETag / Last-Modified validators and 304 answers for catalog and cart reads, see
+ * {@link ConditionalRequestFilter}. Disable with application.conditional-get.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.conditional-get.enabled", havingValue = "true", matchIfMissing = true)
+public class ConditionalGetConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConditionalRequestFilter> conditionalRequestFilter(CatalogVersion catalogVersion,
+                                                                                      CartVersions cartVersions) {
+        FilterRegistrationBean<ConditionalRequestFilter> registration =
+                new FilterRegistrationBean<>(new ConditionalRequestFilter(catalogVersion, cartVersions));
+        registration.addUrlPatterns("/api/products", "/api/products/*", "/api/categories", "/api/categories/*",
+                "/api/cart/*");
+        // Après la sécurité (un 304 reste soumis aux mêmes règles d'accès), avant le cache de réponses
+        registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+        return registration;
+    }
+}
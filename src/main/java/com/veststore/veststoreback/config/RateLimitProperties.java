@@ -0,0 +1,46 @@
+package com.veststore.veststoreback.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Limites par groupe de routes (catalog, cart, auth, admin) : capacity est la rafale
+ * autorisée, refillPerSecond le débit soutenu. Validées au démarrage : un débit nul ou
+ * une rafale hors bornes rendrait l'intervalle d'émission de {@code TokenBucket} infini ou négatif.
+ */
+@Data
+@Validated
+@Component
+@ConfigurationProperties(prefix = "application.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Nombre maximal de clés (utilisateur ou IP) suivies en mémoire
+    @Min(1)
+    private int maxKeys = 100_000;
+
+    private long idleEvictionMs = 300_000;
+
+    private Map<String, @Valid Limit> groups = new LinkedHashMap<>();
+
+    @Data
+    public static class Limit {
+        @Min(1)
+        @Max(1_000_000)
+        private int capacity;
+
+        // Au moins un jeton toutes les ~17 minutes
+        @DecimalMin("0.001")
+        private double refillPerSecond;
+    }
+}
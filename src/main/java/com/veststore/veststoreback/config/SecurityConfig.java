@@ -1,8 +1,14 @@
 package com.veststore.veststoreback.config;
 
+import com.veststore.veststoreback.security.BoundedPasswordEncoder;
 import com.veststore.veststoreback.security.JwtAuthenticationEntryPoint;
 import com.veststore.veststoreback.security.JwtAuthenticationFilter;
+import com.veststore.veststoreback.security.RateLimitFilter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -10,7 +16,6 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -21,12 +26,15 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
     private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
+    private final RateLimitFilter rateLimitFilter;
 
     @Autowired
     public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
-                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint) {
+                          JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
+                          RateLimitFilter rateLimitFilter) {
         this.jwtAuthenticationFilter = jwtAuthenticationFilter;
         this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
+        this.rateLimitFilter = rateLimitFilter;
     }
 
     @Bean
@@ -35,8 +43,18 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            @Value("${application.security.password.threads:0}") int threads,
+            @Value("${application.security.password.queue-capacity:64}") int queueCapacity,
+            @Value("${application.security.password.wait-timeout-ms:5000}") long waitTimeoutMs,
+            @Value("${application.security.password.target-hash-ms:250}") long targetHashMs,
+            @Value("${application.security.password.min-strength:10}") int minStrength,
+            @Value("${application.security.password.max-strength:14}") int maxStrength,
+            MeterRegistry meterRegistry) {
+        // Par défaut un thread de hachage par cœur, le reste du CPU reste au catalogue
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(poolSize, queueCapacity, waitTimeoutMs,
+                targetHashMs, minStrength, maxStrength, meterRegistry);
     }
 
     @Bean
@@ -47,12 +65,19 @@ public class SecurityConfig {
                 .exceptionHandling(exception -> exception.authenticationEntryPoint(jwtAuthenticationEntryPoint))
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
+                        // Outils d'exploitation (enregistrements JFR...) : administrateurs uniquement
+                        .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                        // Actuator : seul health est public, métriques et scrape Prometheus avec un jeton admin
+                        .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                        .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                         // Autoriser toutes les requêtes OPTIONS pour le CORS
                         .requestMatchers("/**").permitAll()
                         .anyRequest().permitAll()
                 )
                 // Déplacer le filtre JWT ici mais il ne doit pas bloquer les requêtes
-                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
+                // Après le JWT pour limiter par utilisateur plutôt que par IP quand c'est possible
+                .addFilterAfter(rateLimitFilter, JwtAuthenticationFilter.class);
 
         return http.build();
     }
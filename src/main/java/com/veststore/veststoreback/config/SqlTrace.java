@@ -0,0 +1,139 @@
+package com.veststore.veststoreback.config;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL activity of the current thread between {@link #start} and {@link #close}: statement
+ * count, JDBC time, rows fetched and the slowest statements. Filled by {@link SqlTraceListener}
+ * while a trace is open; traces nest, and an inner start() while one is open joins it so an
+ * outer scope (a test budget, for instance) sees every statement of the request.
+ */
+public final class SqlTrace implements AutoCloseable {
+
+    private static final ThreadLocal<SqlTrace> CURRENT = new ThreadLocal<>();
+
+    private final SqlTrace previous;
+    private final int keepSlowest;
+    private final boolean keepAll;
+    private final PriorityQueue<Statement> slowest = new PriorityQueue<>(Comparator.comparingLong(Statement::nanos));
+    private final List<Statement> all;
+    private int statements;
+    private long jdbcNanos;
+    private long rows;
+    private boolean joined;
+
+    private SqlTrace(SqlTrace previous, int keepSlowest, boolean keepAll) {
+        this.previous = previous;
+        this.keepSlowest = keepSlowest;
+        this.keepAll = keepAll;
+        this.all = keepAll ? new ArrayList<>() : List.of();
+    }
+
+    /**
+     * Opens a trace on this thread, or joins the one already open.
+     *
+     * @param keepSlowest number of slowest statements to keep for reporting
+     */
+    public static SqlTrace start(int keepSlowest) {
+        SqlTrace current = CURRENT.get();
+        if (current != null) {
+            return current.join();
+        }
+        SqlTrace trace = new SqlTrace(null, keepSlowest, false);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    /**
+     * Opens a trace that keeps every statement, replacing any trace already open.
+     */
+    public static SqlTrace startRecordingAll() {
+        SqlTrace trace = new SqlTrace(CURRENT.get(), 0, true);
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static SqlTrace current() {
+        return CURRENT.get();
+    }
+
+    private SqlTrace join() {
+        // Vue "jointe" : close() ne doit pas refermer la trace de l'appelant
+        SqlTrace view = new SqlTrace(this, 0, false);
+        view.joined = true;
+        return view;
+    }
+
+    void record(String sql, long nanos) {
+        statements++;
+        jdbcNanos += nanos;
+        if (keepAll) {
+            all.add(new Statement(sql, nanos));
+        }
+        if (keepSlowest > 0) {
+            if (slowest.size() < keepSlowest) {
+                slowest.add(new Statement(sql, nanos));
+            } else if (slowest.peek().nanos() < nanos) {
+                slowest.poll();
+                slowest.add(new Statement(sql, nanos));
+            }
+        }
+    }
+
+    void rowFetched() {
+        rows++;
+    }
+
+    public boolean isJoined() {
+        return joined;
+    }
+
+    public int getStatementCount() {
+        return statements;
+    }
+
+    public long getJdbcTimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(jdbcNanos);
+    }
+
+    public long getRowsFetched() {
+        return rows;
+    }
+
+    /**
+     * @return the slowest statements, slowest first
+     */
+    public List<Statement> getSlowest() {
+        return slowest.stream().sorted(Comparator.comparingLong(Statement::nanos).reversed()).toList();
+    }
+
+    /**
+     * @return every statement in execution order (only for {@link #startRecordingAll})
+     */
+    public List<Statement> getStatements() {
+        return List.copyOf(all);
+    }
+
+    @Override
+    public void close() {
+        if (!joined && CURRENT.get() == this) {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    public record Statement(String sql, long nanos) {
+
+        @Override
+        public String toString() {
+            return String.format("%.1f ms  %s", nanos / 1_000_000.0, sql);
+        }
+    }
+}
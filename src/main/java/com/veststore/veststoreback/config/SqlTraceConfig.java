@@ -0,0 +1,66 @@
+package com.veststore.veststoreback.config;
+
+import io.micrometer.observation.ObservationRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.util.function.SingletonSupplier;
+
+import javax.sql.DataSource;
+import java.util.function.Supplier;
+
+/**
+ * Per-request SQL tracing: a datasource-proxy layer in front of the pool reports every
+ * statement to {@link SqlTraceListener}, and {@link SqlTraceFilter} opens a trace for a
+ * sample of requests. Disable with application.sql-trace.enabled=false.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.sql-trace.enabled", havingValue = "true", matchIfMissing = true)
+public class SqlTraceConfig {
+
+    @Bean
+    public static BeanPostProcessor sqlTracePostProcessor(Environment environment,
+                                                          ObjectProvider<ObservationRegistry> observationRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                long slowQueryMs = environment.getProperty("application.sql-trace.slow-query-ms", Long.class, 200L);
+                boolean sqlSpans = environment.getProperty("application.tracing.sql-spans", Boolean.class, true);
+                // Résolu au premier appel : le registre n'existe pas encore quand le DataSource est créé
+                Supplier<ObservationRegistry> registry = sqlSpans
+                        ? SingletonSupplier.of(observationRegistry::getIfAvailable) : () -> null;
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(new SqlTraceListener(slowQueryMs, registry));
+                if (environment.getProperty("application.sql-trace.count-rows", Boolean.class, true)) {
+                    builder.proxyResultSet(SqlTraceListener.rowCounting())
+                            .jdbcProxyFactory(SqlTraceListener.proxyingTracedResultSets());
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<SqlTraceFilter> sqlTraceFilter(Environment environment) {
+        SqlTraceFilter filter = new SqlTraceFilter(
+                environment.getProperty("application.sql-trace.sample-rate", Double.class, 0.1),
+                environment.getProperty("application.sql-trace.slow-request-ms", Long.class, 500L),
+                environment.getProperty("application.sql-trace.max-statements", Integer.class, 30),
+                environment.getProperty("application.sql-trace.keep-slowest", Integer.class, 5));
+        FilterRegistrationBean<SqlTraceFilter> registration = new FilterRegistrationBean<>(filter);
+        // Avant la chaîne de sécurité : les requêtes SQL de l'authentification sont comptées aussi
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
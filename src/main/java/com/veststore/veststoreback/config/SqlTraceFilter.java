@@ -0,0 +1,91 @@
+package com.veststore.veststoreback.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Assigns every request a correlation id (X-Request-Id, reused from the caller when present)
+ * and, for a sample of requests, traces its SQL. A sampled request is logged when it exceeds
+ * the duration or statement-count threshold, with its slowest statements.
+ */
+public class SqlTraceFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_HEADER = "X-Request-Id";
+    public static final String REQUEST_ID_MDC_KEY = "requestId";
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTraceFilter.class);
+    private static final int MAX_REQUEST_ID_LENGTH = 64;
+
+    private final double sampleRate;
+    private final long slowRequestMs;
+    private final int maxStatements;
+    private final int keepSlowest;
+
+    public SqlTraceFilter(double sampleRate, long slowRequestMs, int maxStatements, int keepSlowest) {
+        this.sampleRate = sampleRate;
+        this.slowRequestMs = slowRequestMs;
+        this.maxStatements = maxStatements;
+        this.keepSlowest = keepSlowest;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String requestId = requestId(request);
+        MDC.put(REQUEST_ID_MDC_KEY, requestId);
+        response.setHeader(REQUEST_ID_HEADER, requestId);
+        try {
+            if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            long started = System.nanoTime();
+            try (SqlTrace trace = SqlTrace.start(keepSlowest)) {
+                filterChain.doFilter(request, response);
+                if (!trace.isJoined()) {
+                    report(request, response, trace, (System.nanoTime() - started) / 1_000_000);
+                }
+            }
+        } finally {
+            MDC.remove(REQUEST_ID_MDC_KEY);
+        }
+    }
+
+    private void report(HttpServletRequest request, HttpServletResponse response, SqlTrace trace, long elapsedMs) {
+        boolean slow = elapsedMs >= slowRequestMs;
+        boolean chatty = trace.getStatementCount() > maxStatements;
+        if (slow || chatty) {
+            logger.warn("{} {} -> {} in {} ms: {} statements, {} ms in JDBC, {} rows{}{}",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMs,
+                    trace.getStatementCount(), trace.getJdbcTimeMs(), trace.getRowsFetched(),
+                    chatty ? " (statement budget " + maxStatements + " exceeded)" : "",
+                    trace.getSlowest().stream().map(s -> "\n    " + s).collect(Collectors.joining()));
+        } else if (logger.isDebugEnabled()) {
+            logger.debug("{} {} -> {} in {} ms: {} statements, {} ms in JDBC, {} rows",
+                    request.getMethod(), request.getRequestURI(), response.getStatus(), elapsedMs,
+                    trace.getStatementCount(), trace.getJdbcTimeMs(), trace.getRowsFetched());
+        }
+    }
+
+    private static String requestId(HttpServletRequest request) {
+        String header = request.getHeader(REQUEST_ID_HEADER);
+        // Identifiant fourni par le client : borné et sans caractères de contrôle (injection de logs)
+        if (StringUtils.hasText(header) && header.length() <= MAX_REQUEST_ID_LENGTH
+                && header.chars().allMatch(c -> c > 0x20 && c < 0x7f)) {
+            return header;
+        }
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,134 @@
+package com.veststore.veststoreback.config;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogic;
+import net.ttddyy.dsproxy.proxy.ResultSetProxyLogicFactory;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Feeds the open {@link SqlTrace} of the executing thread and logs slow statements. Without
+ * an open trace the only work per statement is a ThreadLocal read and a threshold check.
+ * When an observation registry is given, each statement issued inside an observation
+ * (request, @Observed method) also becomes a "jdbc.query" child span.
+ */
+public class SqlTraceListener implements QueryExecutionListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlTraceListener.class);
+    private static final String STARTED_AT = SqlTraceListener.class.getName() + ".startedAt";
+    private static final String OBSERVATION = SqlTraceListener.class.getName() + ".observation";
+    private static final int MAX_STATEMENT_LENGTH = 2000;
+
+    private final long slowQueryMs;
+    private final Supplier<ObservationRegistry> observationRegistry;
+
+    public SqlTraceListener(long slowQueryMs, Supplier<ObservationRegistry> observationRegistry) {
+        this.slowQueryMs = slowQueryMs;
+        this.observationRegistry = observationRegistry;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (SqlTrace.current() != null) {
+            execInfo.addCustomValue(STARTED_AT, System.nanoTime());
+        }
+        ObservationRegistry registry = observationRegistry.get();
+        if (registry != null && registry.getCurrentObservation() != null) {
+            String sql = sql(execInfo, queryInfoList);
+            String operation = operation(sql);
+            Observation observation = Observation.createNotStarted("jdbc.query", registry)
+                    .contextualName("jdbc " + operation)
+                    .lowCardinalityKeyValue("db.operation", operation)
+                    .highCardinalityKeyValue("db.statement",
+                            sql.length() > MAX_STATEMENT_LENGTH ? sql.substring(0, MAX_STATEMENT_LENGTH) : sql)
+                    .start();
+            execInfo.addCustomValue(OBSERVATION, observation);
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlTrace trace = SqlTrace.current();
+        Long startedAt = execInfo.getCustomValue(STARTED_AT, Long.class);
+        if (trace != null && startedAt != null) {
+            trace.record(sql(execInfo, queryInfoList), System.nanoTime() - startedAt);
+        }
+        Observation observation = execInfo.getCustomValue(OBSERVATION, Observation.class);
+        if (observation != null) {
+            if (execInfo.getThrowable() != null) {
+                observation.error(execInfo.getThrowable());
+            }
+            observation.stop();
+        }
+        // Le MDC porte l'identifiant de corrélation de la requête
+        if (execInfo.getElapsedTime() >= slowQueryMs) {
+            logger.warn("Slow query ({} ms): {}", execInfo.getElapsedTime(), sql(execInfo, queryInfoList));
+        }
+    }
+
+    private static String sql(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        String sql = queryInfoList.stream().map(QueryInfo::getQuery).distinct().collect(Collectors.joining("; "));
+        return execInfo.isBatch() ? sql + " [batch of " + execInfo.getBatchSize() + "]" : sql;
+    }
+
+    // Valeurs bornées pour le tag (faible cardinalité)
+    private static String operation(String sql) {
+        String head = sql.stripLeading();
+        int end = 0;
+        while (end < head.length() && Character.isLetter(head.charAt(end))) {
+            end++;
+        }
+        String keyword = head.substring(0, end).toLowerCase(Locale.ROOT);
+        return switch (keyword) {
+            case "select", "insert", "update", "delete", "with", "call" -> keyword;
+            default -> "other";
+        };
+    }
+
+    /**
+     * Counts rows read through {@code ResultSet.next()} into the open trace. Used with
+     * {@link #proxyingTracedResultSets()}, which only wraps result sets opened under a trace.
+     */
+    public static ResultSetProxyLogicFactory rowCounting() {
+        return (resultSet, connectionInfo, proxyConfig) -> {
+            ResultSetProxyLogic delegate = ResultSetProxyLogicFactory.DEFAULT.create(resultSet, connectionInfo, proxyConfig);
+            return (proxy, method, args) -> {
+                Object result = delegate.invoke(proxy, method, args);
+                if (result == Boolean.TRUE && "next".equals(method.getName())) {
+                    SqlTrace trace = SqlTrace.current();
+                    if (trace != null) {
+                        trace.rowFetched();
+                    }
+                }
+                return result;
+            };
+        };
+    }
+
+    /**
+     * Proxy factory that leaves the result sets of untraced statements unwrapped: a request
+     * outside the sample pays no reflective call per row.
+     */
+    public static JdbcProxyFactory proxyingTracedResultSets() {
+        return new JdkJdbcProxyFactory() {
+            @Override
+            public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+                return SqlTrace.current() == null ? resultSet : super.createResultSet(resultSet, connectionInfo, proxyConfig);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.veststore.veststoreback.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veststore.veststoreback.tracing.TailSamplingSpanExporter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Local tracing without a collector: Boot's OpenTelemetry bridge records every request
+ * (W3C traceparent in and out, sampling probability 1.0) and hands finished spans to the
+ * {@link TailSamplingSpanExporter}, which keeps slow and failed traces. Controller and
+ * service spans come from @Observed, SQL spans from {@link SqlTraceListener}.
+ * The trace id is returned in X-Trace-Id so a slow response can be looked up directly.
+ */
+@Configuration
+public class TracingConfig implements WebMvcConfigurer {
+
+    public static final String TRACE_ID_HEADER = "X-Trace-Id";
+
+    private final Tracer tracer;
+
+    public TracingConfig(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    // static : l'exporteur est requis par le Tracer, il ne doit pas dépendre de cette classe
+    @Bean
+    public static TailSamplingSpanExporter tailSamplingSpanExporter(
+            @Value("${application.tracing.slow-threshold-ms:500}") long slowThresholdMs,
+            @Value("${application.tracing.baseline-sample-rate:0.01}") double baselineSampleRate,
+            @Value("${application.tracing.max-kept-traces:500}") int maxKeptTraces,
+            @Value("${application.tracing.max-pending-traces:10000}") int maxPendingTraces,
+            @Value("${application.tracing.pending-timeout-ms:60000}") long pendingTimeoutMs,
+            @Value("${application.tracing.max-spans-per-trace:1000}") int maxSpansPerTrace,
+            @Value("${application.tracing.export-file:}") String exportFile,
+            @Value("${application.tracing.export-file-max-mb:64}") long exportFileMaxMb,
+            ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        TailSamplingSpanExporter exporter = new TailSamplingSpanExporter(slowThresholdMs, baselineSampleRate,
+                maxKeptTraces, maxPendingTraces, pendingTimeoutMs, maxSpansPerTrace,
+                exportFile, exportFileMaxMb * 1024 * 1024, objectMapper);
+        Gauge.builder("tracing.traces.pending", exporter, TailSamplingSpanExporter::getPendingTraces)
+                .register(meterRegistry);
+        Gauge.builder("tracing.traces.dropped", exporter, TailSamplingSpanExporter::getDroppedTraces)
+                .description("Traces abandonnées faute de span racine")
+                .register(meterRegistry);
+        Gauge.builder("tracing.spans.dropped", exporter, TailSamplingSpanExporter::getDroppedSpans)
+                .description("Spans au-delà de la limite par trace")
+                .register(meterRegistry);
+        return exporter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                Span span = tracer.currentSpan();
+                if (span != null) {
+                    response.setHeader(TRACE_ID_HEADER, span.context().traceId());
+                }
+                return true;
+            }
+        });
+    }
+}
@@ -0,0 +1,58 @@
+package com.veststore.veststoreback.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.jdbc.DataSourceUnwrapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * Virtual-thread serving mode, active with spring.threads.virtual.enabled=true (profile "virtual").
+ * Boot then runs Tomcat requests, @Async/@Scheduled work and streaming responses on virtual
+ * threads; BCrypt keeps its own platform pool since it is CPU-bound.
+ * The only extra piece is a permit guard in front of the JDBC pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    @Bean
+    public static BeanPostProcessor connectionPermitPostProcessor(Environment environment,
+                                                                  ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionPermitDataSource) {
+                    return bean;
+                }
+                // Par défaut autant de permis que de connexions : l'attente se fait dans le sémaphore
+                HikariDataSource hikari = DataSourceUnwrapper.unwrap(dataSource, HikariDataSource.class);
+                int poolSize = hikari != null ? hikari.getMaximumPoolSize() : 10;
+                int permits = environment.getProperty("application.datasource.guard.max-concurrent", Integer.class, poolSize);
+                long timeoutMs = environment.getProperty("application.datasource.guard.acquire-timeout-ms", Long.class, 30_000L);
+
+                ConnectionPermitDataSource guarded = new ConnectionPermitDataSource(dataSource, permits, timeoutMs);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("jdbc.connection.permits.available", guarded, ConnectionPermitDataSource::getAvailablePermits)
+                            .register(registry);
+                    Gauge.builder("jdbc.connection.permits.waiting", guarded, ConnectionPermitDataSource::getQueueLength)
+                            .register(registry);
+                });
+                logger.info("Virtual threads enabled: guarding DataSource '{}' with {} connection permits", beanName, permits);
+                return guarded;
+            }
+        };
+    }
+}
@@ -1,13 +1,27 @@
 package com.veststore.veststoreback.config;
 
 
+import com.veststore.veststoreback.util.ApiFormat;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.web.config.EnableSpringDataWebSupport;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 @Configuration
+@EnableSpringDataWebSupport(pageSerializationMode = EnableSpringDataWebSupport.PageSerializationMode.VIA_DTO)
 public class WebConfig implements WebMvcConfigurer {
 
+    private final WireFormats wireFormats;
+
+    public WebConfig(WireFormats wireFormats) {
+        this.wireFormats = wireFormats;
+    }
+
     @Override
     public void addCorsMappings(CorsRegistry registry) {
         registry.addMapping("/**")
@@ -16,4 +30,19 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedHeaders("*")
                 .exposedHeaders("Authorization");
     }
-}
\ No newline at end of file
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Seules les versions publiées sont servies ; ajoutés en fin de liste, JSON reste le format par défaut
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        MappingJackson2CborHttpMessageConverter cbor =
+                new MappingJackson2CborHttpMessageConverter(wireFormats.mapper(ApiFormat.CBOR));
+        cbor.setSupportedMediaTypes(List.of(ApiFormat.CBOR.getMediaType()));
+        MappingJackson2SmileHttpMessageConverter smile =
+                new MappingJackson2SmileHttpMessageConverter(wireFormats.mapper(ApiFormat.SMILE));
+        smile.setSupportedMediaTypes(List.of(ApiFormat.SMILE.getMediaType()));
+        converters.add(cbor);
+        converters.add(smile);
+    }
+}
@@ -0,0 +1,49 @@
+package com.veststore.veststoreback.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veststore.veststoreback.util.ApiFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * One ObjectMapper per {@link ApiFormat}, all copied from the mapper Spring Boot configures,
+ * so every format serializes the DTOs with the same modules and settings.
+ * The binary mappers are deliberately not beans: a second ObjectMapper bean would switch
+ * off Boot's own.
+ */
+@Component
+public class WireFormats {
+
+    @FunctionalInterface
+    public interface StreamWriter {
+        void write(ObjectMapper mapper, OutputStream outputStream) throws IOException;
+    }
+
+    private final Map<ApiFormat, ObjectMapper> mappers = new EnumMap<>(ApiFormat.class);
+
+    public WireFormats(ObjectMapper objectMapper) {
+        for (ApiFormat format : ApiFormat.values()) {
+            mappers.put(format, format == ApiFormat.JSON ? objectMapper : objectMapper.copyWith(format.newFactory()));
+        }
+    }
+
+    public ObjectMapper mapper(ApiFormat format) {
+        return mappers.get(format);
+    }
+
+    /**
+     * Réponse en flux dans le format demandé par l'en-tête Accept
+     */
+    public ResponseEntity<StreamingResponseBody> stream(String accept, StreamWriter writer) {
+        ApiFormat format = ApiFormat.negotiate(accept);
+        ObjectMapper mapper = mapper(format);
+        StreamingResponseBody body = outputStream -> writer.write(mapper, outputStream);
+        return ResponseEntity.ok().contentType(format.getMediaType()).body(body);
+    }
+}
@@ -6,7 +6,9 @@ import com.veststore.veststoreback.dto.AuthRequest;
 import com.veststore.veststoreback.dto.AuthResponse;
 import com.veststore.veststoreback.dto.UserDto;
 
+import com.veststore.veststoreback.security.JwtAuthenticationFilter;
 import com.veststore.veststoreback.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -33,6 +35,20 @@ public class AuthController {
         return ResponseEntity.ok(authService.login(loginRequest));
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(HttpServletRequest request) {
+        String token = JwtAuthenticationFilter.getJwtFromRequest(request);
+        if (token == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        try {
+            authService.logout(token);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.noContent().build();
+    }
+
     @PostMapping("/register")
     public ResponseEntity<AuthResponse> register(@Valid @RequestBody UserDto registerRequest) {
         return new ResponseEntity<>(authService.register(registerRequest), HttpStatus.CREATED);
@@ -1,5 +1,6 @@
 package com.veststore.veststoreback.controller;
 
+import com.veststore.veststoreback.config.WireFormats;
 import com.veststore.veststoreback.dto.CartDto;
 import com.veststore.veststoreback.dto.CartItemDto;
 import com.veststore.veststoreback.model.Cart;
@@ -7,26 +8,33 @@ import com.veststore.veststoreback.model.CartStatus;
 import com.veststore.veststoreback.model.Product;
 import com.veststore.veststoreback.security.UserDetailsImpl;
 import com.veststore.veststoreback.service.CartService;
+import io.micrometer.observation.annotation.Observed;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
+@Observed
 @RequestMapping("/api/cart")
 public class CartController {
 
     private final CartService cartService;
+    private final WireFormats wireFormats;
 
     @Autowired
-    public CartController(CartService cartService) {
+    public CartController(CartService cartService, WireFormats wireFormats) {
         this.cartService = cartService;
+        this.wireFormats = wireFormats;
     }
 
     @GetMapping("/{userId}")
@@ -35,6 +43,11 @@ public class CartController {
         return ResponseEntity.ok(cartService.convertToDto(cart));
     }
 
+    @GetMapping(value = "/{userId}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getCartFields(@PathVariable Long userId, @RequestParam String fields) {
+        return ResponseEntity.ok(cartService.getCartFields(userId, fields));
+    }
+
     @PostMapping("/items")
     public ResponseEntity<CartDto> addItemToCart(
             @RequestParam Long userId,
@@ -53,8 +66,9 @@ public class CartController {
     }
 
     @GetMapping
-    public List<CartItemDto> getAllCartItems() {
-        return cartService.getAllCartItems();
+    public ResponseEntity<StreamingResponseBody> getAllCartItems(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return wireFormats.stream(accept, cartService::writeAllCartItems);
     }
 
     @DeleteMapping("/items/{cartItemId}")
@@ -113,10 +127,11 @@ public class CartController {
 
     @GetMapping("/admin/orders")
     @PreAuthorize("hasRole('ROLE_ADMIN')")
-    public ResponseEntity<List<CartItemDto>> getAllOrdersByStatus(
-            @RequestParam(required = false, defaultValue = "VALIDEE") CartStatus status) {
-        List<CartItemDto> orders = cartService.getAllOrdersByStatus(status);
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<StreamingResponseBody> getAllOrdersByStatus(
+            @RequestParam(required = false, defaultValue = "VALIDEE") CartStatus status,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return wireFormats.stream(accept, (mapper, outputStream) ->
+                cartService.writeAllOrdersByStatus(status, mapper, outputStream));
     }
 
     @PutMapping("/admin/orders/{cartItemId}/status")
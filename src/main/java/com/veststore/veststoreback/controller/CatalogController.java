@@ -0,0 +1,31 @@
+package com.veststore.veststoreback.controller;
+
+import com.veststore.veststoreback.dto.CatalogChangesDto;
+import com.veststore.veststoreback.service.CatalogSyncService;
+import com.veststore.veststoreback.util.FieldSelection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/catalog")
+@CrossOrigin(origins = "http://localhost:4200")
+public class CatalogController {
+
+    private final CatalogSyncService catalogSyncService;
+
+    @Autowired
+    public CatalogController(CatalogSyncService catalogSyncService) {
+        this.catalogSyncService = catalogSyncService;
+    }
+
+    // Synchronisation incrémentale : sans since (ou trop ancien), reset=true et tout le catalogue par pages
+    @GetMapping("/changes")
+    public ResponseEntity<CatalogChangesDto> getChanges(
+            @RequestParam(required = false) Long since,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String fields) {
+        FieldSelection productFields = catalogSyncService.selectProductFields(fields);
+        return ResponseEntity.ok(catalogSyncService.getChanges(since, limit, productFields));
+    }
+}
@@ -0,0 +1,40 @@
+package com.veststore.veststoreback.controller;
+
+import com.veststore.veststoreback.jfr.FlightRecorderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/flight-recordings")
+public class FlightRecordingController {
+
+    private final FlightRecorderService flightRecorderService;
+
+    @Autowired
+    public FlightRecordingController(FlightRecorderService flightRecorderService) {
+        this.flightRecorderService = flightRecorderService;
+    }
+
+    // Dump the last N minutes of the continuous recording to a file on the server
+    @PostMapping
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Map<String, Object>> dumpRecording(@RequestParam(defaultValue = "5") int minutes)
+            throws IOException {
+        if (minutes < 1) {
+            return ResponseEntity.badRequest().build();
+        }
+        Path file = flightRecorderService.dump(minutes);
+        return ResponseEntity.status(HttpStatus.CREATED).body(Map.of(
+                "file", file.toAbsolutePath().toString(),
+                "sizeBytes", Files.size(file),
+                "minutes", minutes));
+    }
+}
@@ -0,0 +1,30 @@
+package com.veststore.veststoreback.controller;
+
+import com.veststore.veststoreback.service.OrderFeed;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Sous /api/admin : SecurityConfig y exige le rôle ADMIN, @PreAuthorize seul n'est pas appliqué
+@RestController
+@RequestMapping("/api/admin/orders")
+public class OrderFeedController {
+
+    private final OrderFeed orderFeed;
+
+    @Autowired
+    public OrderFeedController(OrderFeed orderFeed) {
+        this.orderFeed = orderFeed;
+    }
+
+    // Flux SSE des changements de statut ; reprise depuis Last-Event-ID (ou ?lastEventId= au premier chargement)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public SseEmitter streamOrderEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventIdHeader,
+            @RequestParam(required = false) Long lastEventId) {
+        return orderFeed.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+}
@@ -1,31 +1,69 @@
 package com.veststore.veststoreback.controller;
 
+import com.veststore.veststoreback.config.WireFormats;
 import com.veststore.veststoreback.dto.ProductDto;
+import com.veststore.veststoreback.dto.ProductLookupDto;
+import com.veststore.veststoreback.exception.InvalidFieldSelectionException;
 import com.veststore.veststoreback.model.Product;
+import com.veststore.veststoreback.model.ProductSize;
 import com.veststore.veststoreback.service.ProductService;
+import com.veststore.veststoreback.util.FieldSelection;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/products")
 @CrossOrigin(origins = "http://localhost:4200")
 public class ProductController {
     private final ProductService productService;
+    private final WireFormats wireFormats;
 
     @Autowired
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, WireFormats wireFormats) {
         this.productService = productService;
+        this.wireFormats = wireFormats;
     }
 
+    // Liste complète en flux (JSON, CBOR ou Smile selon Accept) : rien n'est accumulé en mémoire
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        return ResponseEntity.ok(productService.getAllProducts());
+    public ResponseEntity<StreamingResponseBody> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        return wireFormats.stream(accept, productService::writeAllProducts);
+    }
+
+    // ?fields=id,name,price,stock : seules ces colonnes sont lues et renvoyées
+    @GetMapping(params = {"fields", "!ids"})
+    public ResponseEntity<StreamingResponseBody> getAllProductFields(
+            @RequestParam String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        FieldSelection selection = productService.selectFields(fields);
+        return wireFormats.stream(accept, (mapper, outputStream) ->
+                productService.writeAllProducts(selection, mapper, outputStream));
+    }
+
+    // ?ids=3,1,2 : un seul aller-retour pour plusieurs produits connus (panier, favoris, vus récemment)
+    @GetMapping(params = "ids")
+    public ResponseEntity<ProductLookupDto> getProductsByIds(@RequestParam List<Long> ids,
+                                                             @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            throw new InvalidFieldSelectionException("fields cannot be combined with ids");
+        }
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
+    }
+
+    // Même recherche pour les listes trop longues pour une URL
+    @PostMapping("/lookup")
+    public ResponseEntity<ProductLookupDto> lookupProducts(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productService.getProductsByIds(ids));
     }
 
     @GetMapping("/{id}")
@@ -33,11 +71,22 @@ public class ProductController {
         return ResponseEntity.ok(productService.getProductById(id));
     }
 
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getProductFieldsById(@PathVariable Long id, @RequestParam String fields) {
+        return ResponseEntity.ok(productService.getProductFields(id, fields));
+    }
+
     @GetMapping("/category/{categoryId}")
     public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable Long categoryId) {
         return ResponseEntity.ok(productService.getProductsByCategory(categoryId));
     }
 
+    @GetMapping(value = "/category/{categoryId}", params = "fields")
+    public ResponseEntity<List<Map<String, Object>>> getProductFieldsByCategory(@PathVariable Long categoryId,
+                                                                              @RequestParam String fields) {
+        return ResponseEntity.ok(productService.getProductFieldsByCategory(categoryId, fields));
+    }
+
     @GetMapping("/low-stock")
     public ResponseEntity<List<Product>> getProductsWithLowStock() {
         return ResponseEntity.ok(productService.getProductsWithLowStock());
@@ -46,11 +95,11 @@ public class ProductController {
     @GetMapping("/filter")
     public ResponseEntity<List<Product>> filterProducts(
             @RequestParam(required = false) Long categoryId,
-            @RequestParam(required = false) Product size,
+            @RequestParam(required = false) ProductSize size,
             @RequestParam(required = false) String color,
             @RequestParam(required = false) BigDecimal minPrice,
             @RequestParam(required = false) BigDecimal maxPrice) {
-        return ResponseEntity.ok(productService.filterProducts(categoryId, size.getSize(), color, minPrice, maxPrice));
+        return ResponseEntity.ok(productService.filterProducts(categoryId, size, color, minPrice, maxPrice));
     }
 
     @PostMapping
@@ -0,0 +1,28 @@
+package com.veststore.veststoreback.controller;
+
+import com.veststore.veststoreback.service.StockStream;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/stock")
+@CrossOrigin(origins = "http://localhost:4200")
+public class StockController {
+
+    private final StockStream stockStream;
+
+    @Autowired
+    public StockController(StockStream stockStream) {
+        this.stockStream = stockStream;
+    }
+
+    // Flux SSE : stock actuel des produits demandés, puis chaque changement (regroupés par tick)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamStock(@RequestParam List<Long> ids) {
+        return stockStream.subscribe(ids);
+    }
+}
@@ -0,0 +1,45 @@
+package com.veststore.veststoreback.controller;
+
+import com.veststore.veststoreback.exception.ResourceNotFoundException;
+import com.veststore.veststoreback.tracing.TailSamplingSpanExporter;
+import com.veststore.veststoreback.tracing.TraceView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin/traces")
+public class TraceController {
+
+    private static final int MAX_LIMIT = 200;
+
+    private final TailSamplingSpanExporter traceStore;
+
+    @Autowired
+    public TraceController(TailSamplingSpanExporter traceStore) {
+        this.traceStore = traceStore;
+    }
+
+    // Kept traces, most recent first (without their spans)
+    @GetMapping
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<List<TraceView>> findTraces(
+            @RequestParam(defaultValue = "50") int limit,
+            @RequestParam(defaultValue = "0") long minDurationMs,
+            @RequestParam(defaultValue = "false") boolean errorsOnly,
+            @RequestParam(required = false) String name) {
+        return ResponseEntity.ok(traceStore.find(Math.max(1, Math.min(limit, MAX_LIMIT)), minDurationMs, errorsOnly, name));
+    }
+
+    // Full span tree of one trace
+    @GetMapping("/{traceId}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<TraceView> getTrace(@PathVariable String traceId) {
+        return traceStore.get(traceId)
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("Trace not found or not kept: " + traceId));
+    }
+}
@@ -0,0 +1,55 @@
+package com.veststore.veststoreback.controller;
+
+import com.veststore.veststoreback.dto.UserSummaryDto;
+import com.veststore.veststoreback.service.UserService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+// Sous /api/admin : SecurityConfig y exige le rôle ADMIN, @PreAuthorize seul n'est pas appliqué
+@RestController
+@RequestMapping("/api/admin/users")
+public class UserAdminController {
+
+    private final UserService userService;
+
+    @Autowired
+    public UserAdminController(UserService userService) {
+        this.userService = userService;
+    }
+
+    // Paginated user directory, optionally filtered by email or name prefix
+    @GetMapping("/directory")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Page<UserSummaryDto>> getUserDirectory(
+            @RequestParam(required = false) String q,
+            @PageableDefault(size = 50, sort = "id") Pageable pageable) {
+        return ResponseEntity.ok(userService.getUserDirectory(q, pageable));
+    }
+
+    // Full user directory as CSV, streamed row by row
+    @GetMapping(value = "/export", produces = "text/csv")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportUserDirectory() {
+        StreamingResponseBody body = userService::exportUserDirectoryCsv;
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .contentType(MediaType.parseMediaType("text/csv; charset=UTF-8"))
+                .body(body);
+    }
+
+    // Revoke every token issued to the user (admin kill-switch)
+    @PostMapping("/{id}/revoke-tokens")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    public ResponseEntity<Void> revokeTokens(@PathVariable Long id) {
+        userService.revokeAllTokens(id);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -6,12 +6,15 @@ import com.veststore.veststoreback.dto.UserDto;
 import com.veststore.veststoreback.exception.ResourceNotFoundException;
 import com.veststore.veststoreback.model.User;
 import com.veststore.veststoreback.service.UserService;
+import com.veststore.veststoreback.util.FieldSelection;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/users")
@@ -24,11 +27,12 @@ public class UserController {
         this.userService = userService;
     }
 
-    // Get all users
+    // Get all users, streamed as they are read; ?fields=id,name,email restricts the columns read
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        List<User> users = userService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<StreamingResponseBody> getAllUsers(@RequestParam(required = false) String fields) {
+        FieldSelection selection = userService.selectFields(fields);
+        StreamingResponseBody body = outputStream -> userService.writeUsers(selection, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     // Get user by ID
@@ -38,6 +42,12 @@ public class UserController {
         return ResponseEntity.ok(user);
     }
 
+    // Get user by ID, restricted to the selected fields
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getUserFieldsById(@PathVariable Long id, @RequestParam String fields) {
+        return ResponseEntity.ok(userService.getUserFields(id, fields));
+    }
+
     // Get user by email
     @GetMapping("/email/{email}")
     public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
@@ -43,4 +43,16 @@ public class CartItemDto {
     private CartStatus status = CartStatus.EN_ATTENTE;
     private int stock;
 
+    // Constructeur utilisé par la requête JPQL des commandes : la taille de l'article est stockée en texte
+    public CartItemDto(Long id, Long productId, String productName, Integer quantity, String size,
+                       String color, BigDecimal price, CartStatus status) {
+        this.id = id;
+        this.productId = productId;
+        this.productName = productName;
+        this.quantity = quantity;
+        this.size = size != null ? ProductSize.valueOf(size) : null;
+        this.color = color;
+        this.price = price;
+        this.status = status;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.veststore.veststoreback.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of catalog changes. When reset is true the client drops its copy of the catalog
+ * before applying the page: it is replaying the whole log from the start. cursor is the
+ * since value of the next call; hasMore asks for that call right away.
+ */
+@Data
+public class CatalogChangesDto {
+
+    private boolean reset;
+    private long cursor;
+    private boolean hasMore;
+    private List<CategoryDto> categories = new ArrayList<>();
+    private List<Map<String, Object>> products = new ArrayList<>();
+    private List<Long> deletedCategoryIds = new ArrayList<>();
+    private List<Long> deletedProductIds = new ArrayList<>();
+}
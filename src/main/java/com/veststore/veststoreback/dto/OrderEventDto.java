@@ -0,0 +1,24 @@
+package com.veststore.veststoreback.dto;
+
+import com.veststore.veststoreback.model.CartStatus;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * A committed cart item status transition, as published on the in-process event bus and
+ * pushed on the admin order feed. id is the position in the outbox, increasing and without
+ * gaps: it is the SSE event id a reconnecting client resumes from.
+ */
+@Data
+public class OrderEventDto {
+
+    private long id;
+    private Long cartItemId;
+    private Long userId;
+    private Long productId;
+    private Integer quantity;
+    private CartStatus previousStatus;
+    private CartStatus status;
+    private Instant occurredAt;
+}
@@ -0,0 +1,18 @@
+package com.veststore.veststoreback.dto;
+
+import com.veststore.veststoreback.model.Product;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of a multi-get: the products found, in the order the ids were requested,
+ * and the requested ids that match no product.
+ */
+@Data
+public class ProductLookupDto {
+
+    private List<Product> products = new ArrayList<>();
+    private List<Long> missingIds = new ArrayList<>();
+}
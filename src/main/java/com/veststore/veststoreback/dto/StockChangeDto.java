@@ -0,0 +1,19 @@
+package com.veststore.veststoreback.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Current stock of a product as pushed on the stock stream (absolute value, not a difference:
+ * applying the same event twice is harmless).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockChangeDto {
+
+    private Long productId;
+    private Integer stock;
+    private boolean lowStock;
+}
@@ -0,0 +1,31 @@
+package com.veststore.veststoreback.dto;
+
+import com.veststore.veststoreback.model.Role;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Projection used by the admin user listings: never carries the password hash or the cart
+ */
+@Data
+@NoArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String name;
+    private String email;
+    private String address;
+    private String phone;
+    private Set<Role> roles = new HashSet<>();
+
+    // Constructeur utilisé par les requêtes JPQL "SELECT new ..."
+    public UserSummaryDto(Long id, String name, String email, String address, String phone) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.address = address;
+        this.phone = phone;
+    }
+}
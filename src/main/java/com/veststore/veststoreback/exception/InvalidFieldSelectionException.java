@@ -0,0 +1,13 @@
+package com.veststore.veststoreback.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidFieldSelectionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public InvalidFieldSelectionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package com.veststore.veststoreback.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class TooManyIdsException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public TooManyIdsException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,32 @@
+package com.veststore.veststoreback.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * One stage of {@code CartService.placeOrder}: stock check, stock write or status update.
+ */
+@Name("com.veststore.CheckoutStage")
+@Label("Checkout Stage")
+@Category({"VestStore", "Checkout"})
+@StackTrace(false)
+public class CheckoutStageEvent extends Event {
+
+    public static final String STOCK_CHECK = "stock-check";
+    public static final String STOCK_WRITE = "stock-write";
+    public static final String STATUS_UPDATE = "status-update";
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("User Id")
+    public long userId;
+
+    @Label("Items")
+    public int items;
+
+    public CheckoutStageEvent(String stage, long userId, int items) {
+        this.stage = stage;
+        this.userId = userId;
+        this.items = items;
+    }
+}
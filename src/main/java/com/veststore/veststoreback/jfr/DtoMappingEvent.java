@@ -0,0 +1,23 @@
+package com.veststore.veststoreback.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Entity-to-DTO mapping, which walks lazy associations and can hide SQL.
+ */
+@Name("com.veststore.DtoMapping")
+@Label("DTO Mapping")
+@Category({"VestStore", "Mapping"})
+@StackTrace(false)
+public class DtoMappingEvent extends Event {
+
+    @Label("Target")
+    public String target;
+
+    @Label("Items")
+    public int items;
+
+    public DtoMappingEvent(String target) {
+        this.target = target;
+    }
+}
@@ -0,0 +1,175 @@
+package com.veststore.veststoreback.jfr;
+
+import com.veststore.veststoreback.exception.ServiceBusyException;
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Continuous flight recording with the JDK "default" settings (about 1% overhead) plus the
+ * application events, kept on disk for max-age. {@link #dump} writes the last minutes of it
+ * to a .jfr file that can be opened in JDK Mission Control or read with the jfr tool. Only the
+ * most recent dumps are kept, within max-dumps files and max-dumps-size-mb in total.
+ */
+@Service
+public class FlightRecorderService implements DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderService.class);
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final String DUMP_PREFIX = "veststore-";
+    private static final String DUMP_SUFFIX = ".jfr";
+
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final long maxSizeBytes;
+    private final Duration eventThreshold;
+    private final Path dumpDirectory;
+    private final int maxDumps;
+    private final long maxDumpsBytes;
+    // Un seul dump à la fois : copier l'enregistrement coûte des I/O disque
+    private final ReentrantLock dumpLock = new ReentrantLock();
+    private Recording recording;
+
+    public FlightRecorderService(@Value("${application.jfr.enabled:true}") boolean enabled,
+                                 @Value("${application.jfr.max-age-minutes:30}") long maxAgeMinutes,
+                                 @Value("${application.jfr.max-size-mb:250}") long maxSizeMb,
+                                 @Value("${application.jfr.event-threshold-ms:1}") long eventThresholdMs,
+                                 @Value("${application.jfr.dump-directory:recordings}") String dumpDirectory,
+                                 @Value("${application.jfr.max-dumps:20}") int maxDumps,
+                                 @Value("${application.jfr.max-dumps-size-mb:2048}") long maxDumpsSizeMb) {
+        this.enabled = enabled;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMb * 1024 * 1024;
+        this.eventThreshold = Duration.ofMillis(eventThresholdMs);
+        this.dumpDirectory = Path.of(dumpDirectory);
+        this.maxDumps = maxDumps;
+        this.maxDumpsBytes = maxDumpsSizeMb * 1024 * 1024;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (!enabled || !FlightRecorder.isAvailable()) {
+            logger.info("Continuous flight recording disabled");
+            return;
+        }
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (IOException | ParseException e) {
+            logger.warn("Could not load the JFR default settings, recording application events only", e);
+            recording = new Recording();
+        }
+        recording.setName("veststore-continuous");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        // Seuil pour ne garder que les opérations significatives
+        recording.enable(CheckoutStageEvent.class).withThreshold(eventThreshold);
+        recording.enable(JwtVerificationEvent.class).withThreshold(eventThreshold);
+        recording.enable(DtoMappingEvent.class).withThreshold(eventThreshold);
+        recording.start();
+        logger.info("Continuous flight recording started (max age {}, max size {} MB)", maxAge, maxSizeBytes / 1024 / 1024);
+    }
+
+    /**
+     * Writes the last {@code minutes} of the continuous recording to the dump directory.
+     *
+     * @return the written file
+     */
+    public Path dump(int minutes) throws IOException {
+        if (recording == null) {
+            throw new ServiceBusyException("Continuous flight recording is not running");
+        }
+        if (!dumpLock.tryLock()) {
+            throw new ServiceBusyException("A flight recording dump is already in progress");
+        }
+        try (Recording snapshot = FlightRecorder.getFlightRecorder().takeSnapshot()) {
+            Files.createDirectories(dumpDirectory);
+            Path file = newDumpFile();
+            snapshot.setMaxAge(Duration.ofMinutes(Math.min(minutes, maxAge.toMinutes())));
+            snapshot.dump(file);
+            logger.info("Flight recording of the last {} minutes written to {}", minutes, file.toAbsolutePath());
+            pruneDumps(file);
+            return file;
+        } finally {
+            dumpLock.unlock();
+        }
+    }
+
+    // Horodatage à la milliseconde, suffixe si deux dumps tombent dans la même milliseconde
+    private Path newDumpFile() {
+        String name = DUMP_PREFIX + LocalDateTime.now().format(FILE_TIMESTAMP);
+        Path file = dumpDirectory.resolve(name + DUMP_SUFFIX);
+        for (int i = 1; Files.exists(file); i++) {
+            file = dumpDirectory.resolve(name + "-" + i + DUMP_SUFFIX);
+        }
+        return file;
+    }
+
+    // Les plus anciens d'abord, jamais le dump qui vient d'être écrit
+    private void pruneDumps(Path latest) throws IOException {
+        List<Path> dumps;
+        try (Stream<Path> files = Files.list(dumpDirectory)) {
+            dumps = files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(DUMP_PREFIX) && name.endsWith(DUMP_SUFFIX) && Files.isRegularFile(file);
+                    })
+                    .sorted(Comparator.comparing(FlightRecorderService::lastModified).thenComparing(Path::getFileName))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+        long totalBytes = 0;
+        for (Path dump : dumps) {
+            totalBytes += Files.size(dump);
+        }
+        Iterator<Path> oldest = dumps.iterator();
+        int remaining = dumps.size();
+        while (oldest.hasNext() && (remaining > maxDumps || totalBytes > maxDumpsBytes)) {
+            Path dump = oldest.next();
+            if (dump.equals(latest)) {
+                continue;
+            }
+            totalBytes -= Files.size(dump);
+            Files.deleteIfExists(dump);
+            remaining--;
+            logger.info("Deleted old flight recording {}", dump.toAbsolutePath());
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+        }
+    }
+}
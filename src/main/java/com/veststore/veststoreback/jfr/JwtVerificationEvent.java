@@ -0,0 +1,20 @@
+package com.veststore.veststoreback.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Signature check, claims parsing and revocation lookup of a bearer token.
+ */
+@Name("com.veststore.JwtVerification")
+@Label("JWT Verification")
+@Category({"VestStore", "Security"})
+@StackTrace(false)
+public class JwtVerificationEvent extends Event {
+
+    @Label("Outcome")
+    @Description("valid, invalid, revoked or error")
+    public String outcome;
+
+    @Label("User Id")
+    public long userId;
+}
@@ -3,6 +3,7 @@ package com.veststore.veststoreback.model;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -21,6 +22,13 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
 
+    // Version du contenu, partagée entre instances : écrite uniquement par CartRepository.bumpContentVersion
+    @Column(name = "content_version", insertable = false, updatable = false)
+    private Long contentVersion;
+
+    @Column(name = "content_updated_at", insertable = false, updatable = false)
+    private Instant contentUpdatedAt;
+
     public BigDecimal getTotalAmount() {
         return items.stream()
                 .map(item -> item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
@@ -0,0 +1,38 @@
+package com.veststore.veststoreback.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * One entry of the catalog change log: an upsert or a tombstone for a product or category,
+ * written in the transaction of the change itself. seq stays null until the sequencer numbers
+ * the entry, after its transaction has committed (see CatalogChangeLog).
+ */
+@Entity
+@Data
+@Table(name = "catalog_changes", indexes = {
+        @Index(name = "idx_catalog_changes_seq", columnList = "seq", unique = true),
+        @Index(name = "idx_catalog_changes_entity", columnList = "entity_type, entity_id, seq")
+})
+public class CatalogChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16)
+    private CatalogEntityType entityType;
+
+    @Column(name = "entity_id", nullable = false)
+    private Long entityId;
+
+    @Column(nullable = false)
+    private boolean deleted;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+}
@@ -0,0 +1,6 @@
+package com.veststore.veststoreback.model;
+
+public enum CatalogEntityType {
+    PRODUCT,
+    CATEGORY
+}
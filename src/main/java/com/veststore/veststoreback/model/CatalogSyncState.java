@@ -0,0 +1,33 @@
+package com.veststore.veststoreback.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Single row (id 1) holding the change log counters. lastSeq is the highest sequence number
+ * handed out; horizon is the highest sequence of a purged tombstone, so a client that synced
+ * before it may have missed a deletion and must start over. lastChangedAt is when the
+ * sequencer last numbered entries: every instance reads it as the catalog's Last-Modified.
+ * The sequencer and the compaction lock this row, which serializes them across instances.
+ */
+@Entity
+@Data
+@Table(name = "catalog_sync_state")
+public class CatalogSyncState {
+
+    public static final long ID = 1L;
+
+    @Id
+    private Long id = ID;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    @Column(nullable = false)
+    private long horizon;
+
+    @Column(name = "last_changed_at")
+    private Instant lastChangedAt;
+}
@@ -0,0 +1,47 @@
+package com.veststore.veststoreback.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Outbox entry for a cart item status transition, written in the transaction of the
+ * transition. previousStatus is null for a newly added item. seq stays null until the
+ * sequencer numbers the entry after its transaction has committed (see OrderEventLog);
+ * it is the event id seen by feed clients.
+ */
+@Entity
+@Data
+@Table(name = "order_events", indexes = {
+        @Index(name = "idx_order_events_seq", columnList = "seq", unique = true)
+})
+public class OrderEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long seq;
+
+    @Column(name = "cart_item_id", nullable = false)
+    private Long cartItemId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    private Integer quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "previous_status", length = 16)
+    private CartStatus previousStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private CartStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
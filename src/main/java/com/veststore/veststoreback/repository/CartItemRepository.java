@@ -1,18 +1,34 @@
 package com.veststore.veststoreback.repository;
 
 
+import com.veststore.veststoreback.dto.CartItemDto;
 import com.veststore.veststoreback.model.Cart;
 import com.veststore.veststoreback.model.CartItem;
 import com.veststore.veststoreback.model.CartStatus;
 import com.veststore.veststoreback.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
-import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     void deleteByCart(Cart cart);
     Optional<CartItem> findByCartAndProductAndSizeAndColor(Cart cart, Product product, String size, String color);
 
-    List<CartItem> findByStatus(CartStatus status);
+    @Query("SELECT new com.veststore.veststoreback.dto.CartItemDto(" +
+            "ci.id, p.id, p.name, ci.quantity, p.size, ci.color, p.price, ci.status, p.stock) " +
+            "FROM CartItem ci JOIN ci.product p ORDER BY ci.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CartItemDto> streamAllItems();
+
+    // Taille de l'article (et non du produit) et pas de stock : c'est la vue des commandes
+    @Query("SELECT new com.veststore.veststoreback.dto.CartItemDto(" +
+            "ci.id, p.id, p.name, ci.quantity, ci.size, ci.color, p.price, ci.status) " +
+            "FROM CartItem ci JOIN ci.product p WHERE ci.status = :status ORDER BY ci.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<CartItemDto> streamOrdersByStatus(CartStatus status);
 }
\ No newline at end of file
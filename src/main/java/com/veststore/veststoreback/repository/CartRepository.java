@@ -3,9 +3,30 @@ package com.veststore.veststoreback.repository;
 import com.veststore.veststoreback.model.Cart;
 import com.veststore.veststoreback.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
 import java.util.Optional;
 
-public interface CartRepository extends JpaRepository<Cart, Long> {
+public interface CartRepository extends JpaRepository<Cart, Long>, CartRepositoryCustom {
     Optional<Cart> findByUser(User user);
 
+    interface ContentVersion {
+        long getNumber();
+
+        long getUpdatedAtMs();
+    }
+
+    @Query(value = """
+            SELECT COALESCE(content_version, 0) AS number,
+                   COALESCE(CAST(EXTRACT(EPOCH FROM content_updated_at) * 1000 AS bigint), 0) AS updatedAtMs
+            FROM carts WHERE user_id = :userId""", nativeQuery = true)
+    Optional<ContentVersion> findContentVersion(Long userId);
+
+    // Dans la transaction de la mutation : la version change exactement quand le contenu est validé
+    @Modifying
+    @Query(value = "UPDATE carts SET content_version = COALESCE(content_version, 0) + 1, content_updated_at = now() "
+            + "WHERE user_id = :userId", nativeQuery = true)
+    int bumpContentVersion(Long userId);
+
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.util.FieldSelection;
+
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A user's cart with a sparse fieldset on its items: id, userId and totalAmount (summed in
+ * the database) plus the selected item columns, without loading the cart entities.
+ */
+public interface CartRepositoryCustom {
+
+    Map<String, String> ITEM_FIELDS = FieldSelection.whitelist(
+            "id", "ci.id",
+            "productId", "p.id",
+            "productName", "p.name",
+            "quantity", "ci.quantity",
+            "size", "ci.size",
+            "color", "ci.color",
+            "price", "p.price",
+            "status", "ci.status",
+            "stock", "p.stock");
+
+    Optional<Map<String, Object>> findCartFieldsByUserId(Long userId, FieldSelection itemFields);
+}
@@ -0,0 +1,50 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.util.FieldSelection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Map<String, Object>> findCartFieldsByUserId(Long userId, FieldSelection itemFields) {
+        List<Tuple> carts = entityManager.createQuery(
+                        "SELECT c.id, SUM(p.price * ci.quantity) FROM Cart c " +
+                                "LEFT JOIN c.items ci LEFT JOIN ci.product p WHERE c.user.id = :userId GROUP BY c.id",
+                        Tuple.class)
+                .setParameter("userId", userId)
+                .getResultList();
+        if (carts.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Long cartId = carts.get(0).get(0, Long.class);
+        BigDecimal total = carts.get(0).get(1, BigDecimal.class);
+        List<Map<String, Object>> items = entityManager.createQuery(
+                        "SELECT " + itemFields.selectClause() + " FROM CartItem ci JOIN ci.product p " +
+                                "WHERE ci.cart.id = :cartId ORDER BY ci.id",
+                        Tuple.class)
+                .setParameter("cartId", cartId)
+                .getResultStream()
+                .map(itemFields::toMap)
+                .toList();
+
+        // Même enveloppe que CartDto
+        Map<String, Object> cart = new LinkedHashMap<>();
+        cart.put("id", cartId);
+        cart.put("userId", userId);
+        cart.put("items", items);
+        cart.put("totalAmount", total != null ? total : BigDecimal.ZERO);
+        return Optional.of(cart);
+    }
+}
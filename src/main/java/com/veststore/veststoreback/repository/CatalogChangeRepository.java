@@ -0,0 +1,56 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.model.CatalogChange;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, Long> {
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM catalog_changes WHERE seq IS NULL)", nativeQuery = true)
+    boolean existsUnsequenced();
+
+    /**
+     * Numérote, dans l'ordre d'insertion, les entrées validées encore sans numéro
+     * @return nombre d'entrées numérotées (base + 1 .. base + n)
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE catalog_changes c SET seq = :base + p.rn
+            FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn
+                  FROM catalog_changes WHERE seq IS NULL ORDER BY id LIMIT :batchSize) p
+            WHERE c.id = p.id""", nativeQuery = true)
+    int assignSequence(long base, int batchSize);
+
+    @Query("SELECT c FROM CatalogChange c WHERE c.seq > :since ORDER BY c.seq")
+    List<CatalogChange> findSequencedAfter(long since, Pageable page);
+
+    // Une entrée remplacée par une plus récente de la même entité n'apprend plus rien à personne
+    @Modifying
+    @Query(value = """
+            DELETE FROM catalog_changes c
+            WHERE c.seq IS NOT NULL
+              AND EXISTS (SELECT 1 FROM catalog_changes n
+                          WHERE n.entity_type = c.entity_type AND n.entity_id = c.entity_id AND n.seq > c.seq)""",
+            nativeQuery = true)
+    int deleteSuperseded();
+
+    @Query("SELECT MAX(c.seq) FROM CatalogChange c WHERE c.deleted = true AND c.changedAt < :cutoff")
+    Long findLastTombstoneBefore(Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM CatalogChange c WHERE c.deleted = true AND c.seq <= :seq")
+    int deleteTombstonesUpTo(long seq);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO catalog_changes (entity_type, entity_id, deleted, changed_at)
+            SELECT 'CATEGORY', id, false, now() FROM categories
+            UNION ALL
+            SELECT 'PRODUCT', id, false, now() FROM products""", nativeQuery = true)
+    int insertBaseline();
+}
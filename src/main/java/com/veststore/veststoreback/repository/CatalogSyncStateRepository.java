@@ -0,0 +1,23 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.model.CatalogSyncState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Optional;
+
+public interface CatalogSyncStateRepository extends JpaRepository<CatalogSyncState, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CatalogSyncState s WHERE s.id = " + CatalogSyncState.ID)
+    Optional<CatalogSyncState> lock();
+
+    // Une seule instance crée la ligne ; les autres attendent sa validation puis ne font rien
+    @Modifying
+    @Query(value = "INSERT INTO catalog_sync_state (id, last_seq, horizon) VALUES (" + CatalogSyncState.ID + ", 0, 0) "
+            + "ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int createIfAbsent();
+}
@@ -0,0 +1,59 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.model.OrderEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface OrderEventRepository extends JpaRepository<OrderEvent, Long> {
+
+    String CHANNEL = "order_events";
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM order_events WHERE seq IS NULL)", nativeQuery = true)
+    boolean existsUnsequenced();
+
+    /**
+     * Verrou de transaction partagé par les séquenceurs de tous les nœuds
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtext('" + CHANNEL + "'))", nativeQuery = true)
+    int lockSequencer();
+
+    @Query("SELECT COALESCE(MAX(e.seq), 0) FROM OrderEvent e")
+    long findLastSeq();
+
+    @Query("SELECT MIN(e.seq) FROM OrderEvent e")
+    Long findFirstSeq();
+
+    /**
+     * Numérote, dans l'ordre d'insertion, les entrées validées encore sans numéro
+     * @return nombre d'entrées numérotées (base + 1 .. base + n)
+     */
+    @Modifying
+    @Query(value = """
+            UPDATE order_events e SET seq = :base + p.rn
+            FROM (SELECT id, row_number() OVER (ORDER BY id) AS rn
+                  FROM order_events WHERE seq IS NULL ORDER BY id LIMIT :batchSize) p
+            WHERE e.id = p.id""", nativeQuery = true)
+    int assignSequence(long base, int batchSize);
+
+    /**
+     * Prévient les nœuds à l'écoute ; PostgreSQL ne délivre la notification qu'au commit
+     */
+    @Query(value = "SELECT 1 FROM pg_notify('" + CHANNEL + "', CAST(:lastSeq AS text))", nativeQuery = true)
+    int notifyListeners(long lastSeq);
+
+    @Query("SELECT e FROM OrderEvent e WHERE e.seq > :since ORDER BY e.seq")
+    List<OrderEvent> findSequencedAfter(long since, Pageable page);
+
+    // Garde toujours la dernière entrée : la numérotation repart de MAX(seq)
+    @Modifying
+    @Query(value = """
+            DELETE FROM order_events
+            WHERE seq IS NOT NULL AND created_at < :cutoff
+              AND seq < (SELECT MAX(seq) FROM order_events)""", nativeQuery = true)
+    int deleteSequencedBefore(Instant cutoff);
+}
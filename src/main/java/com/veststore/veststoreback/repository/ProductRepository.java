@@ -3,20 +3,38 @@ package com.veststore.veststoreback.repository;
 import com.veststore.veststoreback.model.Category;
 import com.veststore.veststoreback.model.Product;
 import com.veststore.veststoreback.model.ProductSize;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
     List<Product> findByCategory(Category category);
 
+    // Curseur pour la liste complète : entités en lecture seule, hors cache de second niveau
+    @Query("SELECT p FROM Product p LEFT JOIN FETCH p.category ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Product> streamAll();
+
     List<Product> findBySize(ProductSize size);
 
     List<Product> findByColor(String color);
 
     List<Product> findByStockLessThanEqual(Integer threshold);
 
+    // Même prédicat que l'index partiel idx_products_low_stock : seules les lignes concernées sont lues
+    @Query("SELECT p.id FROM Product p WHERE p.stock <= p.lowStockThreshold")
+    List<Long> findLowStockIds();
+
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
     List<Product> findByPriceBetween(BigDecimal minPrice, BigDecimal maxPrice);
 
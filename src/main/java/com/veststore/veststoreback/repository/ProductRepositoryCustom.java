@@ -0,0 +1,36 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.util.FieldSelection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Product reads restricted to a sparse fieldset: only the selected columns are queried.
+ */
+public interface ProductRepositoryCustom {
+
+    Map<String, String> FIELDS = FieldSelection.whitelist(
+            "id", "p.id",
+            "name", "p.name",
+            "description", "p.description",
+            "price", "p.price",
+            "size", "p.size",
+            "color", "p.color",
+            "stock", "p.stock",
+            "imageUrl", "p.imageUrl",
+            "lowStockThreshold", "p.lowStockThreshold",
+            "categoryId", "c.id",
+            "categoryName", "c.name");
+
+    Stream<Map<String, Object>> streamAllFields(FieldSelection fields);
+
+    Optional<Map<String, Object>> findFieldsById(Long id, FieldSelection fields);
+
+    List<Map<String, Object>> findFieldsByCategoryId(Long categoryId, FieldSelection fields);
+
+    List<Map<String, Object>> findFieldsByIds(Collection<Long> ids, FieldSelection fields);
+}
@@ -0,0 +1,57 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.util.FieldSelection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    // Jointure externe : un produit sans catégorie reste visible
+    private static final String FROM = " FROM Product p LEFT JOIN p.category c";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Map<String, Object>> streamAllFields(FieldSelection fields) {
+        return entityManager.createQuery("SELECT " + fields.selectClause() + FROM + " ORDER BY p.id", Tuple.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000)
+                .getResultStream()
+                .map(fields::toMap);
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findFieldsById(Long id, FieldSelection fields) {
+        return entityManager.createQuery("SELECT " + fields.selectClause() + FROM + " WHERE p.id = :id", Tuple.class)
+                .setParameter("id", id)
+                .getResultStream()
+                .findFirst()
+                .map(fields::toMap);
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByCategoryId(Long categoryId, FieldSelection fields) {
+        return entityManager.createQuery("SELECT " + fields.selectClause() + FROM + " WHERE c.id = :categoryId ORDER BY p.id", Tuple.class)
+                .setParameter("categoryId", categoryId)
+                .getResultStream()
+                .map(fields::toMap)
+                .toList();
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByIds(Collection<Long> ids, FieldSelection fields) {
+        return entityManager.createQuery("SELECT " + fields.selectClause() + FROM + " WHERE p.id IN :ids ORDER BY p.id", Tuple.class)
+                .setParameter("ids", ids)
+                .getResultStream()
+                .map(fields::toMap)
+                .toList();
+    }
+}
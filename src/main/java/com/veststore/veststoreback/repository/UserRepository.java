@@ -1,11 +1,47 @@
 package com.veststore.veststoreback.repository;
 
+import com.veststore.veststoreback.dto.UserSummaryDto;
 import com.veststore.veststoreback.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    @Query(value = "SELECT new com.veststore.veststoreback.dto.UserSummaryDto(u.id, u.name, u.email, u.address, u.phone) " +
+            "FROM User u",
+            countQuery = "SELECT count(u) FROM User u")
+    Page<UserSummaryDto> findSummaries(Pageable pageable);
+
+    // prefix doit être en minuscules, échappé et terminé par '%' ; couvert par les index de schema-postgresql.sql
+    @Query(value = "SELECT new com.veststore.veststoreback.dto.UserSummaryDto(u.id, u.name, u.email, u.address, u.phone) " +
+            "FROM User u WHERE lower(u.email) LIKE :prefix ESCAPE '!' OR lower(u.name) LIKE :prefix ESCAPE '!'",
+            countQuery = "SELECT count(u) FROM User u " +
+                    "WHERE lower(u.email) LIKE :prefix ESCAPE '!' OR lower(u.name) LIKE :prefix ESCAPE '!'")
+    Page<UserSummaryDto> searchSummaries(String prefix, Pageable pageable);
+
+    @Query("SELECT new com.veststore.veststoreback.dto.UserSummaryDto(u.id, u.name, u.email, u.address, u.phone) " +
+            "FROM User u ORDER BY u.id")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<UserSummaryDto> streamSummaries();
+
+    @Query("SELECT u.id, r FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<Object[]> findRolesByUserIds(Collection<Long> userIds);
+
+
+    @Query("SELECT u.email FROM User u")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    Stream<String> streamAllEmails();
 }
@@ -0,0 +1,28 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.util.FieldSelection;
+import jakarta.persistence.Tuple;
+
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * User reads restricted to a sparse fieldset. The password hash is never selectable.
+ * Each tuple starts with the user id; when roles are selected the query has one row per
+ * role, ordered by user, and the last column holds the role (null for a user without role).
+ */
+public interface UserRepositoryCustom {
+
+    Map<String, String> FIELDS = FieldSelection.whitelist(
+            "id", "u.id",
+            "name", "u.name",
+            "email", "u.email",
+            "address", "u.address",
+            "phone", "u.phone",
+            "roles", "r");
+
+    /**
+     * @param columns champs scalaires sélectionnés (sans "roles")
+     */
+    Stream<Tuple> streamFields(FieldSelection columns, boolean withRoles, Long userId);
+}
@@ -0,0 +1,42 @@
+package com.veststore.veststoreback.repository;
+
+import com.veststore.veststoreback.util.FieldSelection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.stream.Stream;
+
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Stream<Tuple> streamFields(FieldSelection columns, boolean withRoles, Long userId) {
+        StringBuilder jpql = new StringBuilder("SELECT u.id");
+        if (!columns.isEmpty()) {
+            jpql.append(", ").append(columns.selectClause());
+        }
+        if (withRoles) {
+            jpql.append(", r");
+        }
+        jpql.append(" FROM User u");
+        if (withRoles) {
+            jpql.append(" LEFT JOIN u.roles r");
+        }
+        if (userId != null) {
+            jpql.append(" WHERE u.id = :userId");
+        }
+        jpql.append(" ORDER BY u.id");
+
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql.toString(), Tuple.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 1000);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        return query.getResultStream();
+    }
+}
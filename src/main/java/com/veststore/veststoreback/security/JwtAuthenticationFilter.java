@@ -1,5 +1,6 @@
 package com.veststore.veststoreback.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.veststore.veststoreback.jfr.JwtVerificationEvent;
 import com.veststore.veststoreback.repository.UserRepository;
 
 import java.io.IOException;
@@ -22,11 +24,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
     private final UserRepository userRepository;
+    private final TokenRevocationService tokenRevocationService;
 
     @Autowired
-    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserRepository userRepository) {
+    public JwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider, UserRepository userRepository,
+                                   TokenRevocationService tokenRevocationService) {
         this.jwtTokenProvider = jwtTokenProvider;
         this.userRepository = userRepository;
+        this.tokenRevocationService = tokenRevocationService;
     }
 
     @Override
@@ -40,27 +45,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
+        JwtVerificationEvent verification = new JwtVerificationEvent();
         try {
             // Récupérer le token JWT de la requête
             String token = getJwtFromRequest(request);
 
             // Si le token existe et est valide, configurer l'authentification
-            if (StringUtils.hasText(token) && jwtTokenProvider.validateToken(token)) {
-                String userId = jwtTokenProvider.getUserIdFromJWT(token);
-
-                // Charger l'utilisateur à partir de son ID
-                Long userIdLong = Long.parseLong(userId);
-                UserDetails userDetails = userRepository.findById(userIdLong)
-                        .map(user -> UserDetailsImpl.build(user))
-                        .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
-
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(token)) {
+                verification.begin();
+                Claims claims = jwtTokenProvider.validateToken(token) ? jwtTokenProvider.getClaimsFromJWT(token) : null;
+                if (claims == null) {
+                    verification.outcome = "invalid";
+                } else if (tokenRevocationService.isRevoked(claims)) {
+                    // Token révoqué (logout, retrait de rôle) : on continue sans authentifier
+                    verification.outcome = "revoked";
+                } else {
+                    verification.outcome = "valid";
+                    verification.userId = Long.parseLong(claims.getSubject());
+                }
+                verification.commit();
+
+                if (claims != null && "valid".equals(verification.outcome)) {
+                    authenticate(request, claims.getSubject());
+                }
             }
         } catch (Exception ex) {
+            if (verification.outcome == null) {
+                verification.outcome = "error";
+                verification.commit();
+            }
             // En cas d'erreur avec le token, on continue simplement sans authentifier
             // Cela permet aux endpoints publics de continuer à fonctionner
             logger.error("Could not set user authentication in security context", ex);
@@ -69,6 +82,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private void authenticate(HttpServletRequest request, String userId) {
+        // Charger l'utilisateur à partir de son ID
+        Long userIdLong = Long.parseLong(userId);
+        UserDetails userDetails = userRepository.findById(userIdLong)
+                .map(user -> UserDetailsImpl.build(user))
+                .orElseThrow(() -> new RuntimeException("User not found with id: " + userId));
+
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
+
     private boolean shouldSkipAuthentication(String requestURI) {
         // Ajouter tous les chemins qui doivent être accessibles sans authentification
         return requestURI.startsWith("/api/auth/") ||
@@ -79,7 +106,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 requestURI.startsWith("/api-docs/");
     }
 
-    private String getJwtFromRequest(HttpServletRequest request) {
+    public static String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
             return bearerToken.substring(7);
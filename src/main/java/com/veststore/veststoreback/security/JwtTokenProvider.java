@@ -12,11 +12,15 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.UUID;
 
 @Component
 public class JwtTokenProvider {
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    /** Date d'émission à la milliseconde, comparée aux révocations globales */
+    public static final String ISSUED_AT_MS_CLAIM = "iat_ms";
+
     @Value("${application.security.jwt.secret-key}")
     private String jwtSecret;
 
@@ -35,20 +39,28 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .setSubject(userDetails.getUserId().toString()) // Utilisation de l'ID au lieu de l'email
-                .setIssuedAt(new Date())
+                .setId(UUID.randomUUID().toString()) // jti, clé de révocation
+                .setIssuedAt(now)
+                .claim(ISSUED_AT_MS_CLAIM, now.getTime()) // iat est tronqué à la seconde
                 .setExpiration(expiryDate)
                 .signWith(getSigningKey())
                 .compact();
     }
 
     public String getUserIdFromJWT(String token) {
-        Claims claims = Jwts.parserBuilder()
+        return getClaimsFromJWT(token).getSubject();
+    }
+
+    public Claims getClaimsFromJWT(String token) {
+        return Jwts.parserBuilder()
                 .setSigningKey(getSigningKey())
                 .build()
                 .parseClaimsJws(token)
                 .getBody();
+    }
 
-        return claims.getSubject();
+    public long getExpirationInMs() {
+        return jwtExpirationInMs;
     }
 
     public boolean validateToken(String authToken) {
@@ -0,0 +1,174 @@
+package com.veststore.veststoreback.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veststore.veststoreback.config.RateLimitProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limitation de débit par groupe de routes, placée après {@link JwtAuthenticationFilter} pour
+ * pouvoir utiliser l'id de l'utilisateur authentifié ; les appels anonymes sont limités par IP.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+    private static final long TABLE_FULL_WARN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    // Utilisé quand la table des clés est pleine : limite commune à tous les nouveaux clients du groupe
+    private final ConcurrentHashMap<String, TokenBucket> overflowBuckets = new ConcurrentHashMap<>();
+    private final Map<String, Counter> allowedCounters = new ConcurrentHashMap<>();
+    private final Map<String, Counter> deniedCounters = new ConcurrentHashMap<>();
+    // Table pleine : un avertissement par minute au plus, avec le nombre de requêtes concernées
+    private final AtomicLong nextTableFullWarnNanos = new AtomicLong(System.nanoTime());
+    private final LongAdder overflowedRequests = new LongAdder();
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("http.ratelimit.keys", buckets, Map::size)
+                .description("Rate limit buckets currently tracked")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || "OPTIONS".equals(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String group = resolveGroup(request.getRequestURI());
+        RateLimitProperties.Limit limit = group != null ? properties.getGroups().get(group) : null;
+        if (limit == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenBucket bucket = bucketFor(group, resolveClientKey(request), limit);
+        long waitNanos = bucket.tryConsume(System.nanoTime());
+        if (waitNanos == 0) {
+            counter(allowedCounters, group, "allowed").increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        counter(deniedCounters, group, "denied").increment();
+        reject(request, response, waitNanos);
+    }
+
+    private String resolveGroup(String uri) {
+        if (uri.startsWith("/api/admin") || uri.startsWith("/api/cart/admin") || uri.startsWith("/api/users")) {
+            return "admin";
+        }
+        if (uri.startsWith("/api/auth")) {
+            return "auth";
+        }
+        if (uri.startsWith("/api/cart")) {
+            return "cart";
+        }
+        if (uri.startsWith("/api/products") || uri.startsWith("/api/categories")) {
+            return "catalog";
+        }
+        return null;
+    }
+
+    private String resolveClientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserDetailsImpl user) {
+            return "user:" + user.getUserId();
+        }
+        // L'adresse réelle derrière un proxy est fournie par server.forward-headers-strategy
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private TokenBucket bucketFor(String group, String clientKey, RateLimitProperties.Limit limit) {
+        String key = group + '|' + clientKey;
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.getMaxKeys()) {
+            warnTableFull();
+            return overflowBuckets.computeIfAbsent(group,
+                    g -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond()));
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(limit.getCapacity(), limit.getRefillPerSecond()));
+    }
+
+    private void warnTableFull() {
+        overflowedRequests.increment();
+        long now = System.nanoTime();
+        long next = nextTableFullWarnNanos.get();
+        if (now - next >= 0 && nextTableFullWarnNanos.compareAndSet(next, now + TABLE_FULL_WARN_INTERVAL_NANOS)) {
+            log.warn("Rate limit key table is full ({} keys): {} requests sent to the shared group buckets since the last warning",
+                    buckets.size(), overflowedRequests.sumThenReset());
+        }
+    }
+
+    private Counter counter(Map<String, Counter> counters, String group, String outcome) {
+        return counters.computeIfAbsent(group, g -> Counter.builder("http.ratelimit.requests")
+                .tag("group", g)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+
+        final Map<String, Object> body = new HashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Too Many Requests");
+        body.put("message", "Rate limit exceeded, retry in " + retryAfterSeconds + "s");
+        body.put("path", request.getServletPath());
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    /**
+     * Un bucket inactif depuis plus longtemps que son temps de remplissage est plein :
+     * le supprimer équivaut à le recréer plus tard.
+     */
+    @Scheduled(fixedDelayString = "${application.rate-limit.idle-eviction-ms:300000}")
+    public void evictIdleBuckets() {
+        long cutoff = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(properties.getIdleEvictionMs());
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isIdleSince(cutoff));
+        overflowBuckets.values().removeIf(bucket -> bucket.isIdleSince(cutoff));
+        if (before != buckets.size()) {
+            log.debug("Evicted {} idle rate limit buckets", before - buckets.size());
+        }
+    }
+}
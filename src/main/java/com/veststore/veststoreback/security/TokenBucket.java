@@ -0,0 +1,46 @@
+package com.veststore.veststoreback.security;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket, implemented as the equivalent GCRA: the whole state is the
+ * theoretical arrival time of the next request, updated with a single CAS.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+    private volatile long lastAccessNanos;
+
+    public TokenBucket(int capacity, double refillPerSecond) {
+        if (capacity < 1 || !(refillPerSecond >= 0.001)) {
+            throw new IllegalArgumentException("Invalid rate limit: capacity=" + capacity + ", refillPerSecond=" + refillPerSecond);
+        }
+        this.emissionIntervalNanos = (long) (1_000_000_000L / refillPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(0, capacity - 1);
+        this.lastAccessNanos = System.nanoTime();
+    }
+
+    /**
+     * @return 0 si la requête est acceptée, sinon le délai en nanosecondes avant qu'un jeton soit disponible
+     */
+    public long tryConsume(long nowNanos) {
+        lastAccessNanos = nowNanos;
+        while (true) {
+            long tat = theoreticalArrival.get();
+            long base = tat == Long.MIN_VALUE || tat - nowNanos < 0 ? nowNanos : tat;
+            long waitNanos = base - burstToleranceNanos - nowNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public boolean isIdleSince(long cutoffNanos) {
+        return lastAccessNanos - cutoffNanos < 0;
+    }
+}
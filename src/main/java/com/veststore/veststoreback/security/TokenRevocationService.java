@@ -0,0 +1,162 @@
+package com.veststore.veststoreback.security;
+
+import com.veststore.veststoreback.model.RevokedToken;
+import com.veststore.veststoreback.repository.RevokedTokenRepository;
+import com.veststore.veststoreback.util.BloomFilter;
+import io.jsonwebtoken.Claims;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Revocation list for JWTs. Entries live in the revoked_tokens table until the token they
+ * cover expires; an in-memory bloom filter answers the common "not revoked" case without
+ * touching the database.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+    private static final String USER_KEY_PREFIX = "user:";
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final long expectedEntries;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+
+    // Révocations depuis la dernière reconstruction, réinjectées dans le nouveau filtre au cas où
+    // elles n'étaient pas encore commitées au moment de la relecture de la table
+    private Set<String> recentlyRevoked = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  JwtTokenProvider jwtTokenProvider,
+                                  @Value("${application.security.revocation.expected-entries:100000}") long expectedEntries,
+                                  @Value("${application.security.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.expectedEntries = expectedEntries;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedEntries, falsePositiveRate);
+    }
+
+    /**
+     * Vérifie si le token (déjà validé) a été révoqué, individuellement ou via une révocation globale de l'utilisateur
+     */
+    @Transactional(readOnly = true)
+    public boolean isRevoked(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId != null && filter.mightContain(tokenId) && revokedTokenRepository.existsById(tokenId)) {
+            return true;
+        }
+
+        String userKey = USER_KEY_PREFIX + claims.getSubject();
+        if (!filter.mightContain(userKey)) {
+            return false;
+        }
+        Instant issuedAt = issuedAt(claims);
+        return revokedTokenRepository.findById(userKey)
+                .map(cutoff -> issuedAt == null || !issuedAt.isAfter(cutoff.getRevokedAt()))
+                .orElse(false);
+    }
+
+    // iat n'a qu'une précision à la seconde : une reconnexion dans la seconde de la révocation serait refusée
+    private static Instant issuedAt(Claims claims) {
+        Long issuedAtMs = claims.get(JwtTokenProvider.ISSUED_AT_MS_CLAIM, Long.class);
+        if (issuedAtMs != null) {
+            return Instant.ofEpochMilli(issuedAtMs);
+        }
+        Date issuedAt = claims.getIssuedAt();
+        return issuedAt == null ? null : issuedAt.toInstant();
+    }
+
+    @Transactional
+    public void revokeToken(String token) {
+        Claims claims = jwtTokenProvider.getClaimsFromJWT(token);
+        if (claims.getId() == null) {
+            // Tokens émis avant l'ajout du jti : on ne peut révoquer que tout l'utilisateur
+            revokeAllTokensForUser(Long.parseLong(claims.getSubject()));
+            return;
+        }
+
+        RevokedToken revokedToken = new RevokedToken();
+        revokedToken.setTokenId(claims.getId());
+        revokedToken.setUserId(Long.parseLong(claims.getSubject()));
+        revokedToken.setRevokedAt(Instant.now());
+        revokedToken.setExpiresAt(claims.getExpiration().toInstant());
+        revokedTokenRepository.save(revokedToken);
+        remember(revokedToken.getTokenId());
+    }
+
+    /**
+     * Invalide tous les tokens de l'utilisateur émis jusqu'à maintenant (logout global, retrait du rôle admin)
+     */
+    @Transactional
+    public void revokeAllTokensForUser(Long userId) {
+        // Même précision que le claim iat_ms des tokens comparés
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        RevokedToken cutoff = new RevokedToken();
+        cutoff.setTokenId(USER_KEY_PREFIX + userId);
+        cutoff.setUserId(userId);
+        cutoff.setRevokedAt(now);
+        cutoff.setExpiresAt(now.plusMillis(jwtTokenProvider.getExpirationInMs()));
+        revokedTokenRepository.save(cutoff);
+        remember(cutoff.getTokenId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        rebuild();
+    }
+
+    /**
+     * Purge les entrées expirées et reconstruit le filtre pour qu'il ne grossisse pas indéfiniment
+     */
+    @Scheduled(fixedDelayString = "${application.security.revocation.purge-interval-ms:600000}",
+            initialDelayString = "${application.security.revocation.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = revokedTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            logger.debug("Purged {} expired revoked tokens", purged);
+        }
+        rebuild();
+    }
+
+    private void remember(String tokenId) {
+        rebuildLock.lock();
+        try {
+            recentlyRevoked.add(tokenId);
+            filter.put(tokenId);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuild() {
+        rebuildLock.lock();
+        try {
+            BloomFilter rebuilt = new BloomFilter(expectedEntries, falsePositiveRate);
+            revokedTokenRepository.findAllTokenIds().forEach(rebuilt::put);
+            recentlyRevoked.forEach(rebuilt::put);
+            filter = rebuilt;
+            recentlyRevoked = ConcurrentHashMap.newKeySet();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+}
@@ -6,10 +6,14 @@ import com.veststore.veststoreback.dto.AuthResponse;
 import com.veststore.veststoreback.dto.UserDto;
 import com.veststore.veststoreback.model.User;
 import com.veststore.veststoreback.security.JwtTokenProvider;
+import com.veststore.veststoreback.security.TokenRevocationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
@@ -26,23 +30,38 @@ public class AuthService {
     private final AuthenticationManager authenticationManager;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserService userService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Counter loginSuccessCounter;
+    private final Counter loginFailureCounter;
 
     @Autowired
     public AuthService(AuthenticationManager authenticationManager,
                        JwtTokenProvider jwtTokenProvider,
-                       UserService userService) {
+                       UserService userService,
+                       TokenRevocationService tokenRevocationService,
+                       MeterRegistry meterRegistry) {
         this.authenticationManager = authenticationManager;
         this.jwtTokenProvider = jwtTokenProvider;
         this.userService = userService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.loginSuccessCounter = Counter.builder("security.logins").tag("outcome", "success").register(meterRegistry);
+        this.loginFailureCounter = Counter.builder("security.logins").tag("outcome", "failure").register(meterRegistry);
     }
 
     public AuthResponse login(AuthRequest authRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(
-                        authRequest.getEmail(),
-                        authRequest.getPassword()
-                )
-        );
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(
+                            authRequest.getEmail(),
+                            authRequest.getPassword()
+                    )
+            );
+        } catch (AuthenticationException e) {
+            loginFailureCounter.increment();
+            throw e;
+        }
+        loginSuccessCounter.increment();
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtTokenProvider.generateToken(authentication);
@@ -68,4 +87,12 @@ public class AuthService {
 
         return new AuthResponse(jwt, user.getId(), user.getName(), user.getEmail(), user.getRoles());
     }
+
+    public void logout(String token) {
+        if (!jwtTokenProvider.validateToken(token)) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        tokenRevocationService.revokeToken(token);
+        SecurityContextHolder.clearContext();
+    }
 }
\ No newline at end of file
@@ -1,23 +1,35 @@
 package com.veststore.veststoreback.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veststore.veststoreback.dto.CartDto;
 import com.veststore.veststoreback.dto.CartItemDto;
 import com.veststore.veststoreback.exception.InsufficientStockException;
 import com.veststore.veststoreback.exception.ResourceNotFoundException;
+import com.veststore.veststoreback.jfr.CheckoutStageEvent;
+import com.veststore.veststoreback.jfr.DtoMappingEvent;
 import com.veststore.veststoreback.model.*;
 import com.veststore.veststoreback.repository.CartItemRepository;
 import com.veststore.veststoreback.repository.CartRepository;
+import com.veststore.veststoreback.util.FieldSelection;
+import com.veststore.veststoreback.util.JsonArrayWriter;
+import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Observed
 @RequiredArgsConstructor
 public class CartService {
 
@@ -25,6 +37,9 @@ public class CartService {
     private final CartItemRepository cartItemRepository;
     private final ProductService productService;
     private final UserService userService;
+    private final StoreMetrics storeMetrics;
+    private final CartVersions cartVersions;
+    private final OrderEventLog orderEventLog;
 
     @Transactional(readOnly = true)
     public Cart getCartByUserId(Long userId) {
@@ -33,6 +48,16 @@ public class CartService {
                 .orElseThrow(() -> new ResourceNotFoundException("Cart not found for user id: " + userId));
     }
 
+    /**
+     * Panier d'un utilisateur avec seulement les champs d'article demandés, sans charger les entités
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getCartFields(Long userId, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, CartRepository.ITEM_FIELDS);
+        return cartRepository.findCartFieldsByUserId(userId, selection)
+                .orElseThrow(() -> new ResourceNotFoundException("Cart not found for user id: " + userId));
+    }
+
     @Transactional
     public Cart addToCart(Long userId, CartItemDto cartItemDto) {
         User user = userService.getUserById(userId);
@@ -40,6 +65,7 @@ public class CartService {
 
         // Verify that there is enough stock
         if (!product.hasEnoughStock(cartItemDto.getQuantity())) {
+            storeMetrics.insufficientStock("add");
             throw new InsufficientStockException("Not enough stock for product: " + product.getName());
         }
 
@@ -48,6 +74,7 @@ public class CartService {
                 .orElseGet(() -> {
                     Cart newCart = new Cart();
                     newCart.setUser(user);
+                    storeMetrics.cartCreated();
                     return cartRepository.save(newCart);
                 });
 
@@ -72,7 +99,10 @@ public class CartService {
             cart.getItems().add(newItem);
 
             cartItemRepository.save(newItem);
+            orderEventLog.statusChanged(newItem, null);
         }
+        storeMetrics.itemsAdded(cartItemDto.getQuantity());
+        cartVersions.changed(userId);
 
         return cartRepository.save(cart);
     }
@@ -91,6 +121,7 @@ public class CartService {
         // Check if update is a quantity increase and verify stock
         int quantityDiff = quantity - cartItem.getQuantity();
         if (quantityDiff > 0 && !product.hasEnoughStock(quantityDiff)) {
+            storeMetrics.insufficientStock("update");
             throw new InsufficientStockException("Not enough stock for product: " + product.getName());
         }
 
@@ -102,27 +133,23 @@ public class CartService {
             cart.getItems().remove(cartItem);
             cartItemRepository.delete(cartItem);
         }
+        cartVersions.changed(userId);
 
         return cartRepository.save(cart);
     }
 
-    public List<CartItemDto> getAllCartItems() {
-        List<CartItem> items = cartItemRepository.findAll();
-
-        return items.stream().map(item -> {
-            CartItemDto dto = new CartItemDto();
-            dto.setId(item.getId());
-            dto.setProductId(item.getProduct().getId());
-            dto.setProductName(item.getProduct().getName());
-            dto.setQuantity(item.getQuantity());
-            dto.setSize(item.getProduct().getSize());
-            dto.setColor(item.getColor());
-            dto.setStatus(item.getStatus());
-            dto.setPrice(item.getProduct().getPrice());
-            dto.setStock(item.getProduct().getStock());
-
-            return dto;
-        }).collect(Collectors.toList());
+    /**
+     * Tous les articles de panier, lus par curseur et écrits au fil de l'eau
+     */
+    @Transactional(readOnly = true)
+    public void writeAllCartItems(ObjectMapper mapper, OutputStream outputStream) throws IOException {
+        try (Stream<CartItemDto> items = cartItemRepository.streamAllItems();
+             JsonArrayWriter writer = new JsonArrayWriter(mapper, outputStream)) {
+            for (CartItemDto item : (Iterable<CartItemDto>) items::iterator) {
+                writer.write(item);
+            }
+            writer.finish();
+        }
     }
 
     @Transactional
@@ -137,6 +164,7 @@ public class CartService {
         cart.getItems().remove(cartItem);
         cartItemRepository.delete(cartItem);
         cartRepository.save(cart);
+        cartVersions.changed(userId);
     }
 
     @Transactional
@@ -145,10 +173,13 @@ public class CartService {
         cart.getItems().clear();
         cartItemRepository.deleteByCart(cart);
         cartRepository.save(cart);
+        cartVersions.changed(userId);
     }
 
     @Transactional(readOnly = true)
     public CartDto convertToDto(Cart cart) {
+        DtoMappingEvent event = new DtoMappingEvent("CartDto");
+        event.begin();
         CartDto cartDto = new CartDto();
         cartDto.setId(cart.getId());
         cartDto.setUserId(cart.getUser().getId());
@@ -169,6 +200,8 @@ public class CartService {
                 })
                 .toList());
 
+        event.items = cartDto.getItems().size();
+        event.commit();
         return cartDto;
     }
 
@@ -179,28 +212,60 @@ public class CartService {
      */
     @Transactional
     public Cart placeOrder(Long userId) {
-        Cart cart = getCartByUserId(userId);
+        try {
+            Cart cart = doPlaceOrder(userId);
+            storeMetrics.checkoutSucceeded();
+            return cart;
+        } catch (RuntimeException e) {
+            storeMetrics.checkoutFailed(e);
+            throw e;
+        }
+    }
 
-        // Vérifier le stock pour tous les articles du panier
-        for (CartItem item : cart.getItems()) {
+    private Cart doPlaceOrder(Long userId) {
+        Cart cart = getCartByUserId(userId);
+        List<CartItem> items = cart.getItems();
+
+        // Vérifier le stock pour tous les articles avant toute écriture ; un produit peut figurer
+        // sur plusieurs lignes (taille, couleur) : c'est la quantité totale qui doit être disponible
+        CheckoutStageEvent stockCheck = new CheckoutStageEvent(CheckoutStageEvent.STOCK_CHECK, userId, items.size());
+        stockCheck.begin();
+        Map<Long, Integer> demand = new HashMap<>();
+        for (CartItem item : items) {
             Product product = item.getProduct();
-            if (!product.hasEnoughStock(item.getQuantity())) {
+            int quantity = demand.merge(product.getId(), item.getQuantity(), Integer::sum);
+            if (!product.hasEnoughStock(quantity)) {
+                stockCheck.commit();
+                storeMetrics.insufficientStock("checkout");
                 throw new InsufficientStockException("Not enough stock for product: " + product.getName());
             }
+        }
+        stockCheck.commit();
 
-            // Mise à jour du stock
-            int newStock = product.getStock() - item.getQuantity();
-            product.setStock(newStock);
+        // Mise à jour du stock
+        CheckoutStageEvent stockWrite = new CheckoutStageEvent(CheckoutStageEvent.STOCK_WRITE, userId, items.size());
+        stockWrite.begin();
+        for (CartItem item : items) {
+            Product product = item.getProduct();
+            product.setStock(product.getStock() - item.getQuantity());
             productService.updateProduct(product);
         }
+        stockWrite.commit();
 
         // Mettre à jour le statut des articles
-        for (CartItem item : cart.getItems()) {
+        CheckoutStageEvent statusUpdate = new CheckoutStageEvent(CheckoutStageEvent.STATUS_UPDATE, userId, items.size());
+        statusUpdate.begin();
+        for (CartItem item : items) {
+            CartStatus previousStatus = item.getStatus();
             item.setStatus(CartStatus.VALIDEE);
             cartItemRepository.save(item);
+            orderEventLog.statusChanged(item, previousStatus);
         }
+        Cart saved = cartRepository.save(cart);
+        statusUpdate.commit();
+        cartVersions.changed(userId);
 
-        return cartRepository.save(cart);
+        return saved;
     }
 
     /**
@@ -210,7 +275,9 @@ public class CartService {
     public List<CartItemDto> getOrdersByStatus(Long userId, CartStatus status) {
         Cart cart = getCartByUserId(userId);
 
-        return cart.getItems().stream()
+        DtoMappingEvent event = new DtoMappingEvent("CartItemDto");
+        event.begin();
+        List<CartItemDto> orders = cart.getItems().stream()
                 .filter(item -> item.getStatus() == status)
                 .map(item -> {
                     CartItemDto dto = new CartItemDto();
@@ -228,6 +295,10 @@ public class CartService {
                     return dto;
                 })
                 .collect(Collectors.toList());
+
+        event.items = orders.size();
+        event.commit();
+        return orders;
     }
 
     /**
@@ -248,6 +319,8 @@ public class CartService {
 
         cartItem.setStatus(CartStatus.ANNULEE);
         cartItemRepository.save(cartItem);
+        orderEventLog.statusChanged(cartItem, CartStatus.EN_ATTENTE);
+        cartVersions.changed(userId);
     }
 
     /**
@@ -290,39 +363,33 @@ public class CartService {
                 throw new IllegalArgumentException("Invalid status: " + newStatus);
         }
 
+        CartStatus previousStatus = cartItem.getStatus();
         cartItem.setStatus(newStatus);
         cartItemRepository.save(cartItem);
+        orderEventLog.statusChanged(cartItem, previousStatus);
+        cartVersions.changed(cartItem.getCart().getUser().getId());
     }
 
     /**
-     * Obtenir toutes les commandes par statut (pour les admins)
+     * Toutes les commandes d'un statut (pour les admins), en flux
      */
     @Transactional(readOnly = true)
-    public List<CartItemDto> getAllOrdersByStatus(CartStatus status) {
-        List<CartItem> items = cartItemRepository.findByStatus(status);
-
-        return items.stream().map(item -> {
-            CartItemDto dto = new CartItemDto();
-            dto.setId(item.getId());
-            dto.setProductId(item.getProduct().getId());
-            dto.setProductName(item.getProduct().getName());
-            dto.setQuantity(item.getQuantity());
-            dto.setSize(ProductSize.valueOf(item.getSize()));
-            dto.setColor(item.getColor());
-            dto.setStatus(item.getStatus());
-            dto.setPrice(item.getProduct().getPrice());
-            return dto;
-        }).collect(Collectors.toList());
+    public void writeAllOrdersByStatus(CartStatus status, ObjectMapper mapper, OutputStream outputStream)
+            throws IOException {
+        try (Stream<CartItemDto> orders = cartItemRepository.streamOrdersByStatus(status);
+             JsonArrayWriter writer = new JsonArrayWriter(mapper, outputStream)) {
+            for (CartItemDto order : (Iterable<CartItemDto>) orders::iterator) {
+                writer.write(order);
+            }
+            writer.finish();
+        }
     }
 
     /**
      * Vérifier les produits à stock faible
      */
-    @Transactional(readOnly = true)
     public List<Product> getProductsWithLowStock() {
-        return productService.getAllProducts().stream()
-                .filter(Product::hasLowStock)
-                .collect(Collectors.toList());
+        return productService.getProductsWithLowStock();
     }
 
     // NEW METHOD: Allow users to update their own order status (limited to VALIDEE/ANNULEE)
@@ -355,6 +422,7 @@ public class CartService {
             // Verify sufficient stock
             Product product = cartItem.getProduct();
             if (!product.hasEnoughStock(cartItem.getQuantity())) {
+                storeMetrics.insufficientStock("validate");
                 throw new InsufficientStockException("Not enough stock for product: " + product.getName());
             }
 
@@ -379,7 +447,10 @@ public class CartService {
         }
 
         // Update the status
+        CartStatus previousStatus = cartItem.getStatus();
         cartItem.setStatus(newStatus);
         cartItemRepository.save(cartItem);
+        orderEventLog.statusChanged(cartItem, previousStatus);
+        cartVersions.changed(userId);
     }
 }
\ No newline at end of file
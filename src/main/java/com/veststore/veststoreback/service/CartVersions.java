@@ -0,0 +1,37 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.repository.CartRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Version of each user's cart, stored on the cart row and bumped in the transaction of every
+ * cart mutation, so all instances read the same version as soon as the change is committed.
+ * A user without a cart is at version 0.
+ */
+@Component
+public class CartVersions {
+
+    public record Version(long number, long lastModified) {
+    }
+
+    private static final Version NO_CART = new Version(0, 0);
+
+    private final CartRepository cartRepository;
+
+    public CartVersions(CartRepository cartRepository) {
+        this.cartRepository = cartRepository;
+    }
+
+    public Version current(Long userId) {
+        return cartRepository.findContentVersion(userId)
+                .map(version -> new Version(version.getNumber(), version.getUpdatedAtMs()))
+                .orElse(NO_CART);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void changed(Long userId) {
+        cartRepository.bumpContentVersion(userId);
+    }
+}
@@ -0,0 +1,133 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.model.CatalogChange;
+import com.veststore.veststoreback.model.CatalogEntityType;
+import com.veststore.veststoreback.model.CatalogSyncState;
+import com.veststore.veststoreback.repository.CatalogChangeRepository;
+import com.veststore.veststoreback.repository.CatalogSyncStateRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Append side of the catalog change log read by {@link CatalogSyncService}.
+ * Writers append an unnumbered entry inside their own transaction. The sequencer numbers
+ * committed entries in one transaction holding the sync state lock, so a number is only
+ * handed out once every lower number is visible: a client cursor can never skip an entry
+ * that commits late. Entries therefore show up after at most one sequencer interval.
+ * Compaction keeps the newest entry per entity and purges tombstones past their retention,
+ * moving the horizon below which clients have to start over.
+ */
+@Service
+public class CatalogChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeLog.class);
+
+    private final CatalogChangeRepository changeRepository;
+    private final CatalogSyncStateRepository stateRepository;
+    private final int sequenceBatchSize;
+    private final Duration tombstoneRetention;
+
+    public CatalogChangeLog(CatalogChangeRepository changeRepository,
+                            CatalogSyncStateRepository stateRepository,
+                            @Value("${application.catalog-sync.sequence-batch-size:10000}") int sequenceBatchSize,
+                            @Value("${application.catalog-sync.tombstone-retention-hours:168}") long tombstoneRetentionHours) {
+        this.changeRepository = changeRepository;
+        this.stateRepository = stateRepository;
+        this.sequenceBatchSize = sequenceBatchSize;
+        this.tombstoneRetention = Duration.ofHours(tombstoneRetentionHours);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productChanged(Long productId) {
+        append(CatalogEntityType.PRODUCT, productId, false);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void productDeleted(Long productId) {
+        append(CatalogEntityType.PRODUCT, productId, true);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void categoryChanged(Long categoryId) {
+        append(CatalogEntityType.CATEGORY, categoryId, false);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void categoryDeleted(Long categoryId) {
+        append(CatalogEntityType.CATEGORY, categoryId, true);
+    }
+
+    /**
+     * Premier démarrage : une entrée par produit et catégorie existants, pour qu'une
+     * resynchronisation depuis 0 reconstruise tout le catalogue
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void initialize() {
+        if (stateRepository.createIfAbsent() > 0) {
+            int baseline = changeRepository.insertBaseline();
+            logger.info("Catalog change log initialized with {} baseline entries", baseline);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.catalog-sync.sequence-interval-ms:500}")
+    @Transactional
+    public void assignSequence() {
+        if (!changeRepository.existsUnsequenced()) {
+            return;
+        }
+        CatalogSyncState state = stateRepository.lock().orElse(null);
+        if (state == null) {
+            return;
+        }
+        long before = state.getLastSeq();
+        int assigned;
+        do {
+            assigned = changeRepository.assignSequence(state.getLastSeq(), sequenceBatchSize);
+            state.setLastSeq(state.getLastSeq() + assigned);
+        } while (assigned == sequenceBatchSize);
+        if (state.getLastSeq() != before) {
+            state.setLastChangedAt(Instant.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.catalog-sync.compaction-interval-ms:600000}",
+            initialDelayString = "${application.catalog-sync.compaction-interval-ms:600000}")
+    @Transactional
+    public void compact() {
+        CatalogSyncState state = stateRepository.lock().orElse(null);
+        if (state == null) {
+            return;
+        }
+        int superseded = changeRepository.deleteSuperseded();
+        int purged = 0;
+        Long lastTombstone = changeRepository.findLastTombstoneBefore(Instant.now().minus(tombstoneRetention));
+        if (lastTombstone != null) {
+            purged = changeRepository.deleteTombstonesUpTo(lastTombstone);
+            state.setHorizon(Math.max(state.getHorizon(), lastTombstone));
+        }
+        if (superseded > 0 || purged > 0) {
+            logger.debug("Catalog change log compacted: {} superseded entries, {} tombstones purged, horizon {}",
+                    superseded, purged, state.getHorizon());
+        }
+    }
+
+    private void append(CatalogEntityType type, Long entityId, boolean deleted) {
+        CatalogChange change = new CatalogChange();
+        change.setEntityType(type);
+        change.setEntityId(entityId);
+        change.setDeleted(deleted);
+        change.setChangedAt(Instant.now());
+        changeRepository.save(change);
+    }
+}
@@ -0,0 +1,125 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.dto.CatalogChangesDto;
+import com.veststore.veststoreback.dto.CategoryDto;
+import com.veststore.veststoreback.exception.InvalidFieldSelectionException;
+import com.veststore.veststoreback.exception.ServiceBusyException;
+import com.veststore.veststoreback.model.CatalogChange;
+import com.veststore.veststoreback.model.CatalogEntityType;
+import com.veststore.veststoreback.model.CatalogSyncState;
+import com.veststore.veststoreback.model.Category;
+import com.veststore.veststoreback.repository.CatalogChangeRepository;
+import com.veststore.veststoreback.repository.CatalogSyncStateRepository;
+import com.veststore.veststoreback.repository.CategoryRepository;
+import com.veststore.veststoreback.repository.ProductRepository;
+import com.veststore.veststoreback.util.FieldSelection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Delta sync of the catalog from the change log kept by {@link CatalogChangeLog}: the
+ * upserts and tombstones after a client's cursor, with the current state of each upserted
+ * entity. A client without a cursor, or whose cursor is behind the horizon, replays the
+ * compacted log from the start, which holds one entry per live product and category.
+ */
+@Service
+public class CatalogSyncService {
+
+    private final CatalogChangeRepository changeRepository;
+    private final CatalogSyncStateRepository stateRepository;
+    private final ProductRepository productRepository;
+    private final CategoryRepository categoryRepository;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public CatalogSyncService(CatalogChangeRepository changeRepository,
+                              CatalogSyncStateRepository stateRepository,
+                              ProductRepository productRepository,
+                              CategoryRepository categoryRepository,
+                              @Value("${application.catalog-sync.default-page-size:500}") int defaultPageSize,
+                              @Value("${application.catalog-sync.max-page-size:5000}") int maxPageSize) {
+        this.changeRepository = changeRepository;
+        this.stateRepository = stateRepository;
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    public FieldSelection selectProductFields(String fields) {
+        if (fields == null) {
+            return FieldSelection.all(ProductRepository.FIELDS);
+        }
+        FieldSelection selection = FieldSelection.parse(fields, ProductRepository.FIELDS);
+        if (!selection.includes("id")) {
+            throw new InvalidFieldSelectionException("fields must include id");
+        }
+        return selection;
+    }
+
+    // Un seul instantané : l'horizon et les entrées lues ne peuvent pas se contredire
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public CatalogChangesDto getChanges(Long since, Integer limit, FieldSelection productFields) {
+        CatalogSyncState state = stateRepository.findById(CatalogSyncState.ID)
+                .orElseThrow(() -> new ServiceBusyException("Catalog change log is not initialized yet"));
+        int pageSize = limit == null ? defaultPageSize : Math.max(1, Math.min(limit, maxPageSize));
+
+        CatalogChangesDto page = new CatalogChangesDto();
+        // Curseur trop ancien (suppressions purgées) ou inconnu (base réinitialisée) : tout rejouer
+        page.setReset(since == null || since < state.getHorizon() || since > state.getLastSeq());
+        long from = page.isReset() ? 0 : since;
+
+        List<CatalogChange> changes = changeRepository.findSequencedAfter(from, PageRequest.of(0, pageSize + 1));
+        page.setHasMore(changes.size() > pageSize);
+        if (page.isHasMore()) {
+            changes = changes.subList(0, pageSize);
+        }
+        page.setCursor(changes.isEmpty() ? from : changes.get(changes.size() - 1).getSeq());
+
+        // Seule la dernière entrée de chaque entité compte ; l'état envoyé est l'état actuel
+        Map<Long, Boolean> products = new LinkedHashMap<>();
+        Map<Long, Boolean> categories = new LinkedHashMap<>();
+        for (CatalogChange change : changes) {
+            Map<Long, Boolean> target = change.getEntityType() == CatalogEntityType.PRODUCT ? products : categories;
+            target.remove(change.getEntityId());
+            target.put(change.getEntityId(), change.isDeleted());
+        }
+
+        List<Long> upsertedCategories = split(categories, page.getDeletedCategoryIds());
+        for (Category category : categoryRepository.findAllById(upsertedCategories)) {
+            CategoryDto dto = new CategoryDto();
+            dto.setId(category.getId());
+            dto.setName(category.getName());
+            page.getCategories().add(dto);
+        }
+        List<Long> upsertedProducts = split(products, page.getDeletedProductIds());
+        if (!upsertedProducts.isEmpty()) {
+            // Un produit supprimé depuis est absent : sa suppression arrive dans une page suivante
+            page.setProducts(productRepository.findFieldsByIds(upsertedProducts, productFields));
+        }
+        return page;
+    }
+
+    /**
+     * @return les entités mises à jour ; les supprimées vont dans deletedIds
+     */
+    private static List<Long> split(Map<Long, Boolean> latest, List<Long> deletedIds) {
+        List<Long> upserted = new ArrayList<>();
+        latest.forEach((id, isDeleted) -> {
+            if (isDeleted) {
+                deletedIds.add(id);
+            } else {
+                upserted.add(id);
+            }
+        });
+        return upserted;
+    }
+}
@@ -0,0 +1,71 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.model.CatalogSyncState;
+import com.veststore.veststoreback.repository.CatalogSyncStateRepository;
+import com.veststore.veststoreback.util.TransactionCallbacks;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Generation number of the catalog (products, categories, stock). Every write bumps it once
+ * its transaction has committed, so anything derived from the catalog and tagged with a
+ * generation is stale as soon as the current generation differs.
+ * Writes made by another instance reach this one through the shared change log: the
+ * generation is also bumped whenever catalog_sync_state.last_seq moves, and lastModified
+ * follows its last_changed_at. A remote write is therefore seen after at most one sequencer
+ * interval plus one refresh interval. The generation itself is local: {@link #epoch()} tells
+ * two runs (or two instances) apart.
+ */
+@Component
+public class CatalogVersion {
+
+    private final CatalogSyncStateRepository stateRepository;
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile long lastModified = epoch;
+    private volatile long observedSeq = -1;
+
+    public CatalogVersion(CatalogSyncStateRepository stateRepository) {
+        this.stateRepository = stateRepository;
+    }
+
+    public long epoch() {
+        return epoch;
+    }
+
+    public long current() {
+        return generation.get();
+    }
+
+    public long lastModified() {
+        return lastModified;
+    }
+
+    public void changed() {
+        // Après commit : une lecture concurrente ne peut pas mettre en cache l'ancien état sous la nouvelle génération
+        TransactionCallbacks.afterCommit(() -> {
+            lastModified = Math.max(lastModified, System.currentTimeMillis());
+            generation.incrementAndGet();
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.conditional-get.catalog-refresh-ms:1000}")
+    public void refresh() {
+        CatalogSyncState state = stateRepository.findById(CatalogSyncState.ID).orElse(null);
+        if (state == null || state.getLastSeq() == observedSeq) {
+            return;
+        }
+        Instant changedAt = state.getLastChangedAt();
+        if (changedAt != null) {
+            lastModified = Math.max(lastModified, changedAt.toEpochMilli());
+        }
+        // La première lecture ne fait que fixer le point de départ
+        if (observedSeq != -1) {
+            generation.incrementAndGet();
+        }
+        observedSeq = state.getLastSeq();
+    }
+}
@@ -4,50 +4,79 @@ import com.veststore.veststoreback.dto.CategoryDto;
 import com.veststore.veststoreback.exception.ResourceNotFoundException;
 import com.veststore.veststoreback.model.Category;
 import com.veststore.veststoreback.repository.CategoryRepository;
+import com.veststore.veststoreback.util.SingleFlight;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogChangeLog catalogChangeLog;
+    private final TransactionTemplate readOnlyTransaction;
+
+    // Clés "all", "id:<id>" et "name:<nom>" : une seule requête en vol par lecture identique
+    private final SingleFlight<String, Object> categoryLoads;
 
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository,
+                           CatalogVersion catalogVersion,
+                           CatalogChangeLog catalogChangeLog,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${application.single-flight.timeout-ms:2000}") long singleFlightTimeoutMs) {
         this.categoryRepository = categoryRepository;
+        this.catalogVersion = catalogVersion;
+        this.catalogChangeLog = catalogChangeLog;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.categoryLoads = new SingleFlight<>(Duration.ofMillis(singleFlightTimeoutMs));
     }
 
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return coalesce("all", categoryRepository::findAll);
     }
 
     public Category getCategoryById(Long id) {
-        return categoryRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id));
+        return coalesce("id:" + id, () -> categoryRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + id)));
     }
 
     public Category getCategoryByName(String name) {
-        Category category = categoryRepository.findByName(name);
-        if (category == null) {
-            throw new ResourceNotFoundException("Category not found with name: " + name);
-        }
-        return category;
+        return coalesce("name:" + name, () -> {
+            Category category = categoryRepository.findByName(name);
+            if (category == null) {
+                throw new ResourceNotFoundException("Category not found with name: " + name);
+            }
+            return category;
+        });
     }
 
     @Transactional
     public Category createCategory(CategoryDto categoryDto) {
         Category category = new Category();
         category.setName(categoryDto.getName());
-        return categoryRepository.save(category);
+        catalogVersion.changed();
+        Category saved = categoryRepository.save(category);
+        catalogChangeLog.categoryChanged(saved.getId());
+        return saved;
     }
 
     @Transactional
     public Category updateCategory(Long id, CategoryDto categoryDto) {
         Category category = getCategoryById(id);
         category.setName(categoryDto.getName());
+        catalogVersion.changed();
+        catalogChangeLog.categoryChanged(id);
         return categoryRepository.save(category);
     }
 
@@ -57,5 +86,17 @@ public class CategoryService {
             throw new ResourceNotFoundException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        catalogVersion.changed();
+        catalogChangeLog.categoryDeleted(id);
+    }
+
+    // Dans une transaction appelante, on lit directement pour rester dans sa session ; sinon le
+    // chargement partagé a sa propre transaction en lecture seule, comme ProductService.coalesce
+    @SuppressWarnings("unchecked")
+    private <V> V coalesce(String key, Supplier<V> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        return (V) categoryLoads.execute(key, () -> readOnlyTransaction.execute(status -> loader.get()));
     }
 }
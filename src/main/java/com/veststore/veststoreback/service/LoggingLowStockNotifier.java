@@ -0,0 +1,28 @@
+package com.veststore.veststoreback.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Notifier used when the application declares none: one log line per crossing.
+ */
+public class LoggingLowStockNotifier implements LowStockNotifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoggingLowStockNotifier.class);
+
+    @Override
+    public void notify(List<Alert> alerts) {
+        for (Alert alert : alerts) {
+            // Sans valeurs : franchissement constaté par une resynchronisation
+            String detail = alert.stock() == null ? "found by resync"
+                    : "stock " + alert.stock() + ", threshold " + alert.lowStockThreshold();
+            if (alert.low()) {
+                logger.warn("Low stock: product {} ({})", alert.productId(), detail);
+            } else {
+                logger.info("Stock recovered: product {} ({})", alert.productId(), detail);
+            }
+        }
+    }
+}
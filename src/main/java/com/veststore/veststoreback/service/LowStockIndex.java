@@ -0,0 +1,185 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.model.Product;
+import com.veststore.veststoreback.repository.ProductRepository;
+import com.veststore.veststoreback.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Ids of the products at or below their low-stock threshold, kept in memory.
+ * ProductService reports each stock write; the set is updated after commit, so a
+ * read costs the size of the result instead of a scan of the catalog. A periodic resync
+ * against the database picks up what this node could not see (writes from other nodes,
+ * direct SQL), skipping products written while it ran.
+ * Each crossing of the threshold, in either direction, opens a debounce window; at its end
+ * the notifier is told about the product only if its state differs from the last one reported.
+ */
+@Service
+public class LowStockIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(LowStockIndex.class);
+
+    private final ProductRepository productRepository;
+    private final LowStockNotifier notifier;
+    private final Duration debounce;
+
+    private final Set<Long> lowStock = ConcurrentHashMap.newKeySet();
+    // État connu du notifier : au départ le premier chargement, qui ne déclenche aucune alerte
+    private final Set<Long> reportedLow = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Long, Crossing> crossings = new ConcurrentHashMap<>();
+    private final AtomicReference<Set<Long>> writtenDuringResync = new AtomicReference<>();
+    private volatile boolean loaded;
+
+    private record Crossing(Instant since, Integer stock, Integer lowStockThreshold) {
+    }
+
+    public LowStockIndex(ProductRepository productRepository,
+                         ObjectProvider<LowStockNotifier> notifiers,
+                         @Value("${application.low-stock.debounce-ms:30000}") long debounceMs) {
+        this.productRepository = productRepository;
+        this.notifier = notifiers.getIfUnique(LoggingLowStockNotifier::new);
+        this.debounce = Duration.ofMillis(debounceMs);
+    }
+
+    public int size() {
+        return lowStock.size();
+    }
+
+    public List<Long> getProductIds() {
+        List<Long> ids = new ArrayList<>(lowStock);
+        ids.sort(Comparator.naturalOrder());
+        return ids;
+    }
+
+    /**
+     * À appeler dans la transaction qui écrit le produit : appliqué seulement après commit
+     */
+    public void stockChanged(Product product) {
+        Long productId = product.getId();
+        Integer stock = product.getStock();
+        Integer threshold = product.getLowStockThreshold();
+        boolean low = stock != null && threshold != null && product.hasLowStock();
+        TransactionCallbacks.afterCommit(() -> apply(productId, low, stock, threshold));
+    }
+
+    public void productDeleted(Long productId) {
+        TransactionCallbacks.afterCommit(() -> {
+            markWritten(productId);
+            lowStock.remove(productId);
+            reportedLow.remove(productId);
+            crossings.remove(productId);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${application.low-stock.resync-ms:300000}",
+            initialDelayString = "${application.low-stock.resync-ms:300000}")
+    public void resync() {
+        // Une écriture validée après la lecture ci-dessous est plus récente qu'elle : on n'y touche pas
+        Set<Long> written = ConcurrentHashMap.newKeySet();
+        writtenDuringResync.set(written);
+        try {
+            Set<Long> current = new HashSet<>(productRepository.findLowStockIds());
+            int drift = 0;
+            for (Long productId : current) {
+                if (!written.contains(productId) && lowStock.add(productId)) {
+                    drift++;
+                    resynced(productId);
+                }
+            }
+            for (Long productId : lowStock) {
+                if (!current.contains(productId) && !written.contains(productId) && lowStock.remove(productId)) {
+                    drift++;
+                    resynced(productId);
+                }
+            }
+            if (!loaded) {
+                reportedLow.addAll(current);
+                loaded = true;
+                logger.info("Low-stock index loaded: {} products", lowStock.size());
+            } else if (drift > 0) {
+                logger.debug("Low-stock index resync corrected {} products", drift);
+            }
+        } finally {
+            writtenDuringResync.set(null);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.low-stock.flush-ms:5000}")
+    public void flushAlerts() {
+        if (crossings.isEmpty() || !loaded) {
+            return;
+        }
+        Instant cutoff = Instant.now().minus(debounce);
+        List<LowStockNotifier.Alert> alerts = new ArrayList<>();
+        for (Map.Entry<Long, Crossing> entry : crossings.entrySet()) {
+            Crossing crossing = entry.getValue();
+            // Fenêtre encore ouverte, ou modifiée entre-temps : vu au prochain passage
+            if (crossing.since().isAfter(cutoff) || !crossings.remove(entry.getKey(), crossing)) {
+                continue;
+            }
+            Long productId = entry.getKey();
+            boolean low = lowStock.contains(productId);
+            if (low ? reportedLow.add(productId) : reportedLow.remove(productId)) {
+                alerts.add(new LowStockNotifier.Alert(productId, low, crossing.stock(), crossing.lowStockThreshold()));
+            }
+        }
+        if (alerts.isEmpty()) {
+            return;
+        }
+        alerts.sort(Comparator.comparing(LowStockNotifier.Alert::productId));
+        try {
+            notifier.notify(alerts);
+        } catch (RuntimeException e) {
+            logger.warn("Low-stock notifier failed for {} alerts", alerts.size(), e);
+        }
+    }
+
+    private void apply(Long productId, boolean low, Integer stock, Integer threshold) {
+        markWritten(productId);
+        if (low ? lowStock.add(productId) : lowStock.remove(productId)) {
+            crossed(productId, stock, threshold);
+        } else {
+            // Pas de franchissement, mais l'alerte en attente donnera les dernières valeurs
+            crossings.computeIfPresent(productId, (id, crossing) -> new Crossing(crossing.since(), stock, threshold));
+        }
+    }
+
+    private void crossed(Long productId, Integer stock, Integer threshold) {
+        Crossing crossing = new Crossing(Instant.now(), stock, threshold);
+        crossings.merge(productId, crossing, (pending, latest) -> new Crossing(pending.since(), stock, threshold));
+    }
+
+    private void resynced(Long productId) {
+        // Premier chargement : état de référence, pas un franchissement
+        if (loaded) {
+            crossed(productId, null, null);
+        }
+    }
+
+    private void markWritten(Long productId) {
+        Set<Long> written = writtenDuringResync.get();
+        if (written != null) {
+            written.add(productId);
+        }
+    }
+}
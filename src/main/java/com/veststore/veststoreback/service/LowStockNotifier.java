@@ -0,0 +1,25 @@
+package com.veststore.veststoreback.service;
+
+import java.util.List;
+
+/**
+ * Receives low-stock threshold crossings from {@link LowStockIndex}, already debounced:
+ * a product whose stock goes below its threshold and back within the debounce window is
+ * never reported. Declare a bean implementing this interface to send alerts somewhere;
+ * without one, alerts are only logged ({@link LoggingLowStockNotifier}).
+ * Called from a scheduler thread: implementations should not block for long.
+ */
+public interface LowStockNotifier {
+
+    /**
+     * @param alerts au plus une alerte par produit, dans l'ordre des identifiants
+     */
+    void notify(List<Alert> alerts);
+
+    /**
+     * @param low   true when the product went to or below its threshold, false when it recovered
+     * @param stock last stock seen by this node, null when the crossing was found by a resync
+     */
+    record Alert(Long productId, boolean low, Integer stock, Integer lowStockThreshold) {
+    }
+}
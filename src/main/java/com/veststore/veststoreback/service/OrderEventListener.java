@@ -0,0 +1,142 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.dto.OrderEventDto;
+import com.veststore.veststoreback.repository.OrderEventRepository;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Publishes every committed order event, from whichever node wrote it, as an
+ * {@link OrderEventDto} on the application event bus.
+ * A dedicated connection, outside the pool, LISTENs on the order_events channel. A notification
+ * only says that the log has grown: the events themselves are read back from the outbox, after
+ * the last one published, so a notification lost during a reconnect costs nothing but a delay.
+ */
+@Service
+public class OrderEventListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventListener.class);
+
+    private final OrderEventLog eventLog;
+    private final ApplicationEventPublisher publisher;
+    private final DataSourceProperties dataSourceProperties;
+    private final int batchSize;
+    private final int pollMs;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread thread;
+    private long lastPublished;
+
+    public OrderEventListener(OrderEventLog eventLog,
+                              ApplicationEventPublisher publisher,
+                              DataSourceProperties dataSourceProperties,
+                              @Value("${application.order-feed.publish-batch-size:500}") int batchSize,
+                              @Value("${application.order-feed.listen-poll-ms:10000}") int pollMs,
+                              @Value("${application.order-feed.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        this.eventLog = eventLog;
+        this.publisher = publisher;
+        this.dataSourceProperties = dataSourceProperties;
+        this.batchSize = batchSize;
+        this.pollMs = pollMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        // L'historique reste dans la table : on ne publie que ce qui arrive après le démarrage
+        lastPublished = eventLog.getLastSeq();
+        running = true;
+        thread = Thread.ofPlatform().name("order-events-listener").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            closeQuietly(connection);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection listening = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                connection = listening;
+                try (Statement statement = listening.createStatement()) {
+                    statement.execute("LISTEN " + OrderEventRepository.CHANNEL);
+                }
+                PGConnection pgConnection = listening.unwrap(PGConnection.class);
+                // Rattrape ce qui a été numéroté pendant qu'on n'écoutait pas
+                publishNewEvents();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+                    if (notifications != null && notifications.length > 0) {
+                        publishNewEvents();
+                    } else if (!listening.isValid(5)) {
+                        throw new SQLException("Listening connection is no longer valid");
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Order event listener disconnected, retrying in {} ms: {}", reconnectDelayMs, e.toString());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    private void publishNewEvents() {
+        List<OrderEventDto> events;
+        do {
+            events = eventLog.findAfter(lastPublished, batchSize);
+            for (OrderEventDto event : events) {
+                lastPublished = event.getId();
+                try {
+                    publisher.publishEvent(event);
+                } catch (RuntimeException e) {
+                    // Un abonné en échec ne doit ni bloquer les suivants ni faire republier l'événement
+                    logger.warn("Order event {} listener failed", event.getId(), e);
+                }
+            }
+        } while (events.size() == batchSize);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+            // Arrêt en cours : la connexion est abandonnée de toute façon
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.dto.OrderEventDto;
+import com.veststore.veststoreback.model.CartItem;
+import com.veststore.veststoreback.model.CartStatus;
+import com.veststore.veststoreback.model.OrderEvent;
+import com.veststore.veststoreback.repository.OrderEventRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Transactional outbox of cart item status transitions.
+ * CartService appends an unnumbered entry in the transaction of the transition. The sequencer
+ * numbers committed entries under a transaction-scoped advisory lock, so numbers follow commit
+ * order on every node, then notifies the order_events channel in the same transaction:
+ * listeners only hear about entries that are already visible (see OrderEventListener).
+ */
+@Service
+public class OrderEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderEventLog.class);
+
+    private final OrderEventRepository eventRepository;
+    private final int sequenceBatchSize;
+    private final Duration retention;
+
+    public OrderEventLog(OrderEventRepository eventRepository,
+                         @Value("${application.order-feed.sequence-batch-size:10000}") int sequenceBatchSize,
+                         @Value("${application.order-feed.retention-hours:72}") long retentionHours) {
+        this.eventRepository = eventRepository;
+        this.sequenceBatchSize = sequenceBatchSize;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    /**
+     * @param previousStatus null pour un article qui vient d'être ajouté
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(CartItem item, CartStatus previousStatus) {
+        if (item.getStatus() == previousStatus) {
+            return;
+        }
+        OrderEvent event = new OrderEvent();
+        event.setCartItemId(item.getId());
+        event.setUserId(item.getCart().getUser().getId());
+        event.setProductId(item.getProduct().getId());
+        event.setQuantity(item.getQuantity());
+        event.setPreviousStatus(previousStatus);
+        event.setStatus(item.getStatus());
+        event.setCreatedAt(Instant.now());
+        eventRepository.save(event);
+    }
+
+    @Transactional(readOnly = true)
+    public long getLastSeq() {
+        return eventRepository.findLastSeq();
+    }
+
+    /**
+     * Plus petit numéro encore conservé, null si le journal est vide
+     */
+    @Transactional(readOnly = true)
+    public Long getFirstSeq() {
+        return eventRepository.findFirstSeq();
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderEventDto> findAfter(long since, int limit) {
+        return eventRepository.findSequencedAfter(since, PageRequest.of(0, limit)).stream()
+                .map(OrderEventLog::toDto)
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${application.order-feed.sequence-interval-ms:500}")
+    @Transactional
+    public void assignSequence() {
+        if (!eventRepository.existsUnsequenced()) {
+            return;
+        }
+        eventRepository.lockSequencer();
+        long lastSeq = eventRepository.findLastSeq();
+        int assigned;
+        do {
+            assigned = eventRepository.assignSequence(lastSeq, sequenceBatchSize);
+            lastSeq += assigned;
+        } while (assigned == sequenceBatchSize);
+        eventRepository.notifyListeners(lastSeq);
+    }
+
+    @Scheduled(fixedDelayString = "${application.order-feed.purge-interval-ms:3600000}",
+            initialDelayString = "${application.order-feed.purge-interval-ms:3600000}")
+    @Transactional
+    public void purge() {
+        int purged = eventRepository.deleteSequencedBefore(Instant.now().minus(retention));
+        if (purged > 0) {
+            logger.debug("Order event log purged: {} entries older than {}", purged, retention);
+        }
+    }
+
+    private static OrderEventDto toDto(OrderEvent event) {
+        OrderEventDto dto = new OrderEventDto();
+        dto.setId(event.getSeq());
+        dto.setCartItemId(event.getCartItemId());
+        dto.setUserId(event.getUserId());
+        dto.setProductId(event.getProductId());
+        dto.setQuantity(event.getQuantity());
+        dto.setPreviousStatus(event.getPreviousStatus());
+        dto.setStatus(event.getStatus());
+        dto.setOccurredAt(event.getCreatedAt());
+        return dto;
+    }
+}
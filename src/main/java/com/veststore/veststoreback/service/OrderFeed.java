@@ -0,0 +1,179 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.dto.OrderEventDto;
+import com.veststore.veststoreback.exception.ServiceBusyException;
+import com.veststore.veststoreback.util.SseSubscriber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Live admin order feed: pushes every order event published on the event bus
+ * (see OrderEventListener) to the connected admin clients over SSE.
+ * Each event carries its outbox number as SSE id. A client that reconnects with Last-Event-ID
+ * first gets the events it missed, read back from the outbox; when they are no longer all
+ * there (purged, or more than max-replay), it gets a reset event instead and reloads the order
+ * list. A new connection starts with an id-only event so that even an idle client has an id
+ * to resume from.
+ */
+@Service
+public class OrderFeed {
+
+    private static final String EVENT_NAME = "order";
+    private static final String RESET_EVENT_NAME = "reset";
+
+    private final OrderEventLog eventLog;
+    private final int maxSubscribers;
+    private final int maxReplay;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Counter dropped;
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public OrderFeed(OrderEventLog eventLog,
+                     MeterRegistry registry,
+                     @Value("${application.order-feed.max-subscribers:1000}") int maxSubscribers,
+                     @Value("${application.order-feed.max-replay:500}") int maxReplay,
+                     @Value("${application.order-feed.buffer-size:1024}") int bufferSize,
+                     @Value("${application.order-feed.timeout-ms:1800000}") long timeoutMs) {
+        this.eventLog = eventLog;
+        this.maxSubscribers = maxSubscribers;
+        this.maxReplay = maxReplay;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeoutMs;
+        this.dropped = Counter.builder("order.feed.dropped")
+                .description("Abonnés déconnectés parce qu'ils ne lisaient pas assez vite")
+                .register(registry);
+        Gauge.builder("order.feed.subscribers", subscriptions, Set::size)
+                .register(registry);
+    }
+
+    /**
+     * @param lastEventId dernier événement reçu par le client, null pour une première connexion
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new ServiceBusyException("Too many order feed subscribers");
+        }
+        // Inscrit avant de relire le journal : un événement publié entre-temps est mis de côté, pas perdu
+        Subscription subscription = new Subscription();
+        subscriptions.add(subscription);
+        try {
+            subscription.start(lastEventId);
+        } catch (RuntimeException e) {
+            subscription.subscriber.close();
+            throw e;
+        }
+        return subscription.subscriber.getEmitter();
+    }
+
+    @EventListener
+    public void onOrderEvent(OrderEventDto event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.deliver(event);
+        }
+    }
+
+    // Garde la connexion ouverte à travers les proxys et détecte les clients partis
+    @Scheduled(fixedDelayString = "${application.order-feed.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.subscriber.offer(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(subscription -> subscription.subscriber.close());
+        senders.shutdown();
+    }
+
+    private final class Subscription {
+
+        private final SseSubscriber subscriber;
+        // Événements arrivés pendant la relecture du journal ; null une fois la relecture terminée
+        private List<OrderEventDto> held = new ArrayList<>();
+        private long lastSent;
+
+        private Subscription() {
+            this.subscriber = new SseSubscriber(timeoutMs, bufferSize, senders, () -> subscriptions.remove(this));
+        }
+
+        private void start(Long lastEventId) {
+            long head = eventLog.getLastSeq();
+            List<OrderEventDto> missed = List.of();
+            boolean reset = false;
+            if (lastEventId != null) {
+                Long first = eventLog.getFirstSeq();
+                if (lastEventId > head || (first != null && lastEventId < first - 1)) {
+                    reset = true;
+                } else {
+                    missed = eventLog.findAfter(lastEventId, maxReplay + 1);
+                    reset = missed.size() > maxReplay;
+                }
+            }
+
+            synchronized (this) {
+                if (reset) {
+                    lastSent = head;
+                    send(SseEmitter.event().id(String.valueOf(head)).name(RESET_EVENT_NAME).data(head).reconnectTime(3000));
+                } else if (lastEventId == null) {
+                    lastSent = head;
+                    send(SseEmitter.event().id(String.valueOf(head)).reconnectTime(3000));
+                } else {
+                    lastSent = lastEventId;
+                    missed.forEach(this::sendIfNew);
+                }
+                List<OrderEventDto> arrived = held;
+                held = null;
+                arrived.forEach(this::sendIfNew);
+            }
+        }
+
+        private synchronized void deliver(OrderEventDto event) {
+            if (held == null) {
+                sendIfNew(event);
+            } else if (held.size() < bufferSize) {
+                held.add(event);
+            } else {
+                // Relecture trop lente face au flux : le client reprendra depuis son dernier id
+                held.clear();
+                dropped.increment();
+                subscriber.close();
+            }
+        }
+
+        private void sendIfNew(OrderEventDto event) {
+            if (event.getId() <= lastSent) {
+                return;
+            }
+            lastSent = event.getId();
+            send(SseEmitter.event().id(String.valueOf(event.getId())).name(EVENT_NAME)
+                    .data(event, MediaType.APPLICATION_JSON));
+        }
+
+        private void send(SseEmitter.SseEventBuilder event) {
+            // Refusé alors qu'il était ouvert : tampon plein, l'abonné vient d'être déconnecté
+            boolean open = !subscriber.isClosed();
+            if (!subscriber.offer(event) && open) {
+                dropped.increment();
+            }
+        }
+    }
+}
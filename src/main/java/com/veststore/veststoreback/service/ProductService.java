@@ -1,48 +1,190 @@
 package com.veststore.veststoreback.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veststore.veststoreback.dto.ProductDto;
+import com.veststore.veststoreback.dto.ProductLookupDto;
 import com.veststore.veststoreback.exception.ResourceNotFoundException;
+import com.veststore.veststoreback.exception.TooManyIdsException;
 import com.veststore.veststoreback.model.Category;
 import com.veststore.veststoreback.model.Product;
 import com.veststore.veststoreback.model.ProductSize;
 import com.veststore.veststoreback.repository.CategoryRepository;
 import com.veststore.veststoreback.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
+import com.veststore.veststoreback.util.FieldSelection;
+import com.veststore.veststoreback.util.JsonArrayWriter;
+import com.veststore.veststoreback.util.SingleFlight;
+import io.micrometer.observation.annotation.Observed;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
-@RequiredArgsConstructor
+@Observed
 public class ProductService {
 
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
+    private final CatalogVersion catalogVersion;
+    private final CatalogChangeLog catalogChangeLog;
+    private final StockStream stockStream;
+    private final LowStockIndex lowStockIndex;
+    private final TransactionTemplate readOnlyTransaction;
+    private final EntityManager entityManager;
+    private final int maxLookupIds;
+    private final int lookupBatchSize;
 
+    // Un pic de trafic sur le même produit ne coûte qu'une requête SQL à la fois
+    private final SingleFlight<Long, Product> productLoads;
+    private final SingleFlight<Long, List<Product>> categoryProductLoads;
+
+    public ProductService(ProductRepository productRepository,
+                          CategoryRepository categoryRepository,
+                          CatalogVersion catalogVersion,
+                          CatalogChangeLog catalogChangeLog,
+                          StockStream stockStream,
+                          LowStockIndex lowStockIndex,
+                          PlatformTransactionManager transactionManager,
+                          EntityManager entityManager,
+                          @Value("${application.single-flight.timeout-ms:2000}") long singleFlightTimeoutMs,
+                          @Value("${application.product-lookup.max-ids:200}") int maxLookupIds,
+                          @Value("${application.product-lookup.batch-size:100}") int lookupBatchSize) {
+        this.productRepository = productRepository;
+        this.categoryRepository = categoryRepository;
+        this.catalogVersion = catalogVersion;
+        this.catalogChangeLog = catalogChangeLog;
+        this.stockStream = stockStream;
+        this.lowStockIndex = lowStockIndex;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.entityManager = entityManager;
+        this.maxLookupIds = maxLookupIds;
+        this.lookupBatchSize = lookupBatchSize;
+        this.productLoads = new SingleFlight<>(Duration.ofMillis(singleFlightTimeoutMs));
+        this.categoryProductLoads = new SingleFlight<>(Duration.ofMillis(singleFlightTimeoutMs));
+    }
+
+    // Lectures transactionnelles : imageUrl est un large object PostgreSQL, illisible en auto-commit
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         return productRepository.findAll();
     }
 
-    public Product getProductById(Long id) {
-        return productRepository.findById(id)
+    /**
+     * Tous les produits dans le format du mapper, lus par curseur ; chaque produit est détaché
+     * une fois écrit pour que le contexte de persistance ne grossisse pas avec la liste
+     */
+    @Transactional(readOnly = true)
+    public void writeAllProducts(ObjectMapper mapper, OutputStream outputStream) throws IOException {
+        try (Stream<Product> products = productRepository.streamAll();
+             JsonArrayWriter writer = new JsonArrayWriter(mapper, outputStream)) {
+            for (Product product : (Iterable<Product>) products::iterator) {
+                writer.write(product);
+                entityManager.detach(product);
+            }
+            writer.finish();
+        }
+    }
+
+    public FieldSelection selectFields(String fields) {
+        return FieldSelection.parse(fields, ProductRepository.FIELDS);
+    }
+
+    /**
+     * Tous les produits réduits aux champs demandés : seules ces colonnes sont lues
+     */
+    @Transactional(readOnly = true)
+    public void writeAllProducts(FieldSelection fields, ObjectMapper mapper, OutputStream outputStream)
+            throws IOException {
+        try (Stream<Map<String, Object>> products = productRepository.streamAllFields(fields);
+             JsonArrayWriter writer = new JsonArrayWriter(mapper, outputStream)) {
+            for (Map<String, Object> product : (Iterable<Map<String, Object>>) products::iterator) {
+                writer.write(product);
+            }
+            writer.finish();
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Object> getProductFields(Long id, String fields) {
+        return productRepository.findFieldsById(id, selectFields(fields))
                 .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getProductFieldsByCategory(Long categoryId, String fields) {
+        FieldSelection selection = selectFields(fields);
+        if (categoryRepository.findById(categoryId).isEmpty()) {
+            throw new ResourceNotFoundException("Category not found with id: " + categoryId);
+        }
+        return productRepository.findFieldsByCategoryId(categoryId, selection);
+    }
+
+    public Product getProductById(Long id) {
+        return coalesce(productLoads, id, () -> productRepository.findById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + id)));
+    }
+
+    /**
+     * Plusieurs produits d'un coup : contexte de persistance et cache de second niveau d'abord,
+     * puis une requête IN par lot pour les absents. Ordre de la demande conservé, doublons ignorés.
+     */
+    @Transactional(readOnly = true)
+    public ProductLookupDto getProductsByIds(List<Long> ids) {
+        List<Long> distinctIds = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distinctIds.size() > maxLookupIds) {
+            throw new TooManyIdsException("At most " + maxLookupIds + " product ids per lookup, got " + distinctIds.size());
+        }
+        List<Product> loaded = multiLoad(distinctIds);
+
+        ProductLookupDto lookup = new ProductLookupDto();
+        for (int i = 0; i < distinctIds.size(); i++) {
+            Product product = loaded.get(i);
+            if (product != null) {
+                lookup.getProducts().add(product);
+            } else {
+                lookup.getMissingIds().add(distinctIds.get(i));
+            }
+        }
+        return lookup;
+    }
+
     public List<Product> getProductsByCategory(Long categoryId) {
-        Category category = categoryRepository.findById(categoryId)
-                .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
-        return productRepository.findByCategory(category);
+        return coalesce(categoryProductLoads, categoryId, () -> {
+            Category category = categoryRepository.findById(categoryId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + categoryId));
+            return productRepository.findByCategory(category);
+        });
     }
 
+    /**
+     * Produits sous leur seuil d'alerte : identifiants tirés de l'index, entités chargées comme un multi-get
+     */
+    @Transactional(readOnly = true)
     public List<Product> getProductsWithLowStock() {
-        return productRepository.findAll().stream()
-                .filter(Product::hasLowStock)
+        return multiLoad(lowStockIndex.getProductIds()).stream()
+                // L'index peut précéder de peu une écriture d'un autre nœud : l'entité fait foi
+                .filter(product -> product != null && product.hasLowStock())
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<Product> filterProducts(Long categoryId, ProductSize size, String color,
                                         BigDecimal minPrice, BigDecimal maxPrice) {
         return productRepository.findWithFilters(categoryId, size, color, minPrice, maxPrice);
@@ -55,8 +197,12 @@ public class ProductService {
 
         Product product = new Product();
         mapDtoToProduct(productDto, product, category);
+        catalogVersion.changed();
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogChangeLog.productChanged(saved.getId());
+        lowStockIndex.stockChanged(saved);
+        return saved;
     }
 
     @Transactional
@@ -66,6 +212,10 @@ public class ProductService {
                 .orElseThrow(() -> new ResourceNotFoundException("Category not found with id: " + productDto.getCategoryId()));
 
         mapDtoToProduct(productDto, product, category);
+        catalogVersion.changed();
+        catalogChangeLog.productChanged(id);
+        stockStream.stockChanged(product);
+        lowStockIndex.stockChanged(product);
 
         return productRepository.save(product);
     }
@@ -84,13 +234,21 @@ public class ProductService {
             productRepository.findById(product.getId())
                     .orElseThrow(() -> new ResourceNotFoundException("Product not found with id: " + product.getId()));
         }
-        return productRepository.save(product);
+        catalogVersion.changed();
+        Product saved = productRepository.save(product);
+        catalogChangeLog.productChanged(saved.getId());
+        stockStream.stockChanged(saved);
+        lowStockIndex.stockChanged(saved);
+        return saved;
     }
 
     @Transactional
     public void deleteProduct(Long id) {
         Product product = getProductById(id);
         productRepository.delete(product);
+        catalogVersion.changed();
+        catalogChangeLog.productDeleted(id);
+        lowStockIndex.productDeleted(id);
     }
 
     @Transactional
@@ -98,6 +256,32 @@ public class ProductService {
         Product product = getProductById(productId);
         product.setStock(product.getStock() + quantity);
         productRepository.save(product);
+        catalogVersion.changed();
+        catalogChangeLog.productChanged(productId);
+        stockStream.stockChanged(product);
+        lowStockIndex.stockChanged(product);
+    }
+
+    // Sans mode explicite, multiLoad ne consulte pas le cache de second niveau
+    private List<Product> multiLoad(List<Long> ids) {
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Product.class)
+                .with(CacheMode.NORMAL)
+                .enableSessionCheck(true)
+                .withBatchSize(lookupBatchSize)
+                .enableOrderedReturn(true)
+                .multiLoad(ids);
+    }
+
+    /**
+     * Shares one in-flight load between concurrent callers. Inside a caller's transaction the
+     * load runs directly so that the caller gets entities managed by its own session.
+     */
+    private <K, V> V coalesce(SingleFlight<K, V> flight, K key, Supplier<V> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        return flight.execute(key, () -> readOnlyTransaction.execute(status -> loader.get()));
     }
 
     private void mapDtoToProduct(ProductDto dto, Product product, Category category) {
@@ -0,0 +1,146 @@
+package com.veststore.veststoreback.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.veststore.veststoreback.repository.UserRepository;
+import com.veststore.veststoreback.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of registered emails, in front of the lookups by email (login, duplicate checks).
+ * The filter is local to the node and only rebuilt periodically, so a miss is not proof of
+ * absence: users registered on another node or inserted in SQL are not in it yet. A miss is
+ * therefore checked against the database once, then the answer is remembered: an email found
+ * goes into the filter, an email confirmed absent skips the database until absent-ttl-ms
+ * expires. Repeated attempts on unknown emails (bot sign-ups, credential stuffing) cost one
+ * query per email and TTL, and a user created elsewhere waits at most that TTL.
+ */
+@Component
+public class RegisteredEmailFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailFilter.class);
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long minExpectedEmails;
+    private final double falsePositiveRate;
+    private final Cache<String, Boolean> knownAbsent;
+
+    private volatile BloomFilter filter;
+    private volatile boolean ready = false;
+
+    // Emails ajoutés depuis la dernière reconstruction (pas forcément visibles dans la relecture)
+    private Set<String> recentlyAdded = ConcurrentHashMap.newKeySet();
+    // Protège seulement l'échange du filtre et de recentlyAdded, jamais la lecture de la table
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    public RegisteredEmailFilter(UserRepository userRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${application.users.email-filter.min-expected-entries:100000}") long minExpectedEmails,
+                                 @Value("${application.users.email-filter.false-positive-rate:0.01}") double falsePositiveRate,
+                                 @Value("${application.users.email-filter.absent-ttl-ms:60000}") long absentTtlMs,
+                                 @Value("${application.users.email-filter.absent-max-entries:100000}") long absentMaxEntries) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.minExpectedEmails = minExpectedEmails;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(minExpectedEmails, falsePositiveRate);
+        this.knownAbsent = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(absentTtlMs))
+                .maximumSize(absentMaxEntries)
+                .build();
+    }
+
+    /**
+     * Recherche par email ; la base n'est évitée que pour un email récemment confirmé absent
+     */
+    public <T> Optional<T> find(String email, Function<String, Optional<T>> lookup) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        // Tant que le filtre n'est pas construit, tout passe par la base
+        boolean inFilter = !ready || filter.mightContain(email);
+        if (!inFilter && knownAbsent.getIfPresent(email) != null) {
+            return Optional.empty();
+        }
+        Optional<T> found = lookup.apply(email);
+        if (!inFilter) {
+            if (found.isPresent()) {
+                filter.put(email);
+            } else {
+                knownAbsent.put(email, Boolean.TRUE);
+            }
+        }
+        return found;
+    }
+
+    public void add(String email) {
+        if (email == null) {
+            return;
+        }
+        knownAbsent.invalidate(email);
+        swapLock.lock();
+        try {
+            recentlyAdded.add(email);
+            filter.put(email);
+        } finally {
+            swapLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    @Scheduled(fixedDelayString = "${application.users.email-filter.rebuild-interval-ms:3600000}",
+            initialDelayString = "${application.users.email-filter.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        Set<String> addedBefore;
+        swapLock.lock();
+        try {
+            addedBefore = recentlyAdded;
+            recentlyAdded = ConcurrentHashMap.newKeySet();
+        } finally {
+            swapLock.unlock();
+        }
+
+        long expected = Math.max(minExpectedEmails, userRepository.count() * 2);
+        BloomFilter rebuilt = new BloomFilter(expected, falsePositiveRate);
+        // Le stream de Spring Data exige une transaction ouverte
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                emails.forEach(rebuilt::put);
+            }
+        });
+        addedBefore.forEach(rebuilt::put);
+
+        swapLock.lock();
+        try {
+            // Ajouts pendant la relecture : ils restent aussi dans recentlyAdded pour la prochaine
+            recentlyAdded.forEach(rebuilt::put);
+            filter = rebuilt;
+            ready = true;
+        } finally {
+            swapLock.unlock();
+        }
+        logger.debug("Registered email filter rebuilt (sized for {} entries)", expected);
+    }
+}
@@ -0,0 +1,195 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.dto.StockChangeDto;
+import com.veststore.veststoreback.exception.ServiceBusyException;
+import com.veststore.veststoreback.exception.TooManyIdsException;
+import com.veststore.veststoreback.model.Product;
+import com.veststore.veststoreback.repository.ProductRepository;
+import com.veststore.veststoreback.util.FieldSelection;
+import com.veststore.veststoreback.util.SseSubscriber;
+import com.veststore.veststoreback.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Pushes stock changes over SSE to clients subscribed to a set of product ids.
+ * Committed changes only record the latest stock per product; each tick turns them into at
+ * most one event per subscriber, so a burst of checkouts on a product costs one message per
+ * tick. Events go through each subscriber's bounded buffer ({@link SseSubscriber}): a client
+ * that falls that many ticks behind is disconnected rather than slowing anyone down.
+ * A new subscription starts with the current stock of its products.
+ */
+@Service
+public class StockStream {
+
+    private static final String EVENT_NAME = "stock";
+    private static final FieldSelection SNAPSHOT_FIELDS =
+            FieldSelection.parse("id,stock,lowStockThreshold", ProductRepository.FIELDS);
+
+    private final ProductRepository productRepository;
+    private final int maxIds;
+    private final int maxSubscribers;
+    private final int bufferTicks;
+    private final long timeoutMs;
+    private final Counter dropped;
+
+    // Envois bloquants sur des threads virtuels : un client lent n'immobilise qu'un thread virtuel
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    private final ConcurrentMap<Long, Set<Subscription>> subscriptionsByProduct = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, StockChangeDto> pending = new ConcurrentHashMap<>();
+
+    public StockStream(ProductRepository productRepository,
+                       MeterRegistry registry,
+                       @Value("${application.stock-stream.max-ids:100}") int maxIds,
+                       @Value("${application.stock-stream.max-subscribers:10000}") int maxSubscribers,
+                       @Value("${application.stock-stream.buffer-ticks:32}") int bufferTicks,
+                       @Value("${application.stock-stream.timeout-ms:1800000}") long timeoutMs) {
+        this.productRepository = productRepository;
+        this.maxIds = maxIds;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferTicks = bufferTicks;
+        this.timeoutMs = timeoutMs;
+        this.dropped = Counter.builder("stock.stream.dropped")
+                .description("Abonnés déconnectés parce qu'ils ne lisaient pas assez vite")
+                .register(registry);
+        Gauge.builder("stock.stream.subscribers", subscriptions, Set::size)
+                .register(registry);
+    }
+
+    public SseEmitter subscribe(List<Long> ids) {
+        Set<Long> productIds = ids.stream().filter(Objects::nonNull).collect(Collectors.toCollection(LinkedHashSet::new));
+        if (productIds.size() > maxIds) {
+            throw new TooManyIdsException("At most " + maxIds + " product ids per stock stream, got " + productIds.size());
+        }
+        if (subscriptions.size() >= maxSubscribers) {
+            throw new ServiceBusyException("Too many stock stream subscribers");
+        }
+
+        // Inscrit avant de lire l'état initial : un changement entre les deux arrive en double, jamais perdu
+        Subscription subscription = new Subscription(productIds);
+        subscriptions.add(subscription);
+        for (Long productId : productIds) {
+            subscriptionsByProduct.compute(productId, (id, subscribers) -> {
+                Set<Subscription> set = subscribers != null ? subscribers : ConcurrentHashMap.newKeySet();
+                set.add(subscription);
+                return set;
+            });
+        }
+        try {
+            List<StockChangeDto> snapshot = productIds.isEmpty() ? List.of()
+                    : productRepository.findFieldsByIds(productIds, SNAPSHOT_FIELDS).stream()
+                    .map(row -> change((Long) row.get("id"), (Integer) row.get("stock"), (Integer) row.get("lowStockThreshold")))
+                    .toList();
+            subscription.offer(event(snapshot).reconnectTime(3000));
+        } catch (RuntimeException e) {
+            subscription.subscriber.close();
+            throw e;
+        }
+        return subscription.subscriber.getEmitter();
+    }
+
+    /**
+     * À appeler dans la transaction qui modifie le stock : publié seulement après commit
+     */
+    public void stockChanged(Product product) {
+        StockChangeDto change = change(product.getId(), product.getStock(), product.getLowStockThreshold());
+        TransactionCallbacks.afterCommit(() -> {
+            if (subscriptionsByProduct.containsKey(change.getProductId())) {
+                pending.put(change.getProductId(), change);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${application.stock-stream.tick-ms:250}")
+    public void tick() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        Map<Subscription, List<StockChangeDto>> batches = new HashMap<>();
+        for (Long productId : pending.keySet()) {
+            StockChangeDto change = pending.remove(productId);
+            Set<Subscription> subscribers = subscriptionsByProduct.get(productId);
+            if (change == null || subscribers == null) {
+                continue;
+            }
+            for (Subscription subscription : subscribers) {
+                batches.computeIfAbsent(subscription, s -> new ArrayList<>()).add(change);
+            }
+        }
+        batches.forEach((subscription, changes) -> subscription.offer(event(changes)));
+    }
+
+    // Garde la connexion ouverte à travers les proxys et détecte les clients partis
+    @Scheduled(fixedDelayString = "${application.stock-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(SseEmitter.event().comment("keep-alive"));
+        }
+    }
+
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.forEach(subscription -> subscription.subscriber.close());
+        senders.shutdown();
+    }
+
+    private static StockChangeDto change(Long productId, Integer stock, Integer lowStockThreshold) {
+        boolean lowStock = stock != null && lowStockThreshold != null && stock <= lowStockThreshold;
+        return new StockChangeDto(productId, stock, lowStock);
+    }
+
+    private static SseEmitter.SseEventBuilder event(List<StockChangeDto> changes) {
+        return SseEmitter.event().name(EVENT_NAME).data(changes, MediaType.APPLICATION_JSON);
+    }
+
+    private final class Subscription {
+
+        private final Set<Long> productIds;
+        private final SseSubscriber subscriber;
+
+        private Subscription(Set<Long> productIds) {
+            this.productIds = productIds;
+            this.subscriber = new SseSubscriber(timeoutMs, bufferTicks, senders, this::remove);
+        }
+
+        private void offer(SseEmitter.SseEventBuilder event) {
+            // Refusé alors qu'il était ouvert : tampon plein, l'abonné vient d'être déconnecté
+            boolean open = !subscriber.isClosed();
+            if (!subscriber.offer(event) && open) {
+                dropped.increment();
+            }
+        }
+
+        private void remove() {
+            subscriptions.remove(this);
+            for (Long productId : productIds) {
+                subscriptionsByProduct.computeIfPresent(productId, (id, subscribers) -> {
+                    subscribers.remove(this);
+                    return subscribers.isEmpty() ? null : subscribers;
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+/**
+ * Business counters of the store. Success counters are incremented after commit, so a
+ * rolled-back checkout is never reported as sold. Tags only take values from fixed sets
+ * (operations, exception classes) to keep the number of series bounded.
+ */
+@Component
+public class StoreMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter cartsCreated;
+    private final Counter itemsAdded;
+    private final Counter checkoutsSucceeded;
+
+    public StoreMetrics(MeterRegistry registry, LowStockIndex lowStockIndex) {
+        this.registry = registry;
+        // "store.carts" : le suffixe _created est réservé par OpenMetrics
+        this.cartsCreated = Counter.builder("store.carts")
+                .description("Paniers créés")
+                .register(registry);
+        this.itemsAdded = Counter.builder("store.cart.items.added")
+                .description("Quantités ajoutées aux paniers")
+                .register(registry);
+        this.checkoutsSucceeded = Counter.builder("store.checkouts")
+                .tag("outcome", "success")
+                .tag("exception", "none")
+                .register(registry);
+        Gauge.builder("store.products.low_stock", lowStockIndex, LowStockIndex::size)
+                .description("Produits dont le stock est sous le seuil d'alerte")
+                .register(registry);
+    }
+
+    public void cartCreated() {
+        TransactionCallbacks.afterCommit(cartsCreated::increment);
+    }
+
+    public void itemsAdded(int quantity) {
+        TransactionCallbacks.afterCommit(() -> itemsAdded.increment(quantity));
+    }
+
+    public void checkoutSucceeded() {
+        TransactionCallbacks.afterCommit(checkoutsSucceeded::increment);
+    }
+
+    public void checkoutFailed(RuntimeException cause) {
+        registry.counter("store.checkouts", "outcome", "failure", "exception", cause.getClass().getSimpleName())
+                .increment();
+    }
+
+    /**
+     * @param operation where the shortage was detected (add, update, checkout, validate)
+     */
+    public void insufficientStock(String operation) {
+        registry.counter("store.stock.insufficient", "operation", operation).increment();
+    }
+}
@@ -1,21 +1,44 @@
 package com.veststore.veststoreback.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.veststore.veststoreback.dto.SimplifiedUserDto;
 import com.veststore.veststoreback.dto.UserDto;
+import com.veststore.veststoreback.dto.UserSummaryDto;
 import com.veststore.veststoreback.exception.ResourceNotFoundException;
 import com.veststore.veststoreback.model.Cart;
 import com.veststore.veststoreback.model.Role;
 import com.veststore.veststoreback.model.User;
 import com.veststore.veststoreback.repository.CartRepository;
 import com.veststore.veststoreback.repository.UserRepository;
+import com.veststore.veststoreback.security.TokenRevocationService;
+import com.veststore.veststoreback.util.FieldSelection;
+import com.veststore.veststoreback.util.JsonArrayWriter;
+import jakarta.persistence.Tuple;
 import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 public class UserService {
@@ -23,16 +46,130 @@ public class UserService {
     private final UserRepository userRepository;
     private final CartRepository cartRepository;
     private final PasswordEncoder passwordEncoder;
+    private final TokenRevocationService tokenRevocationService;
+    private final RegisteredEmailFilter registeredEmailFilter;
+    private final StoreMetrics storeMetrics;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public UserService(UserRepository userRepository, CartRepository cartRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, CartRepository cartRepository, PasswordEncoder passwordEncoder,
+                       TokenRevocationService tokenRevocationService, RegisteredEmailFilter registeredEmailFilter,
+                       StoreMetrics storeMetrics, ObjectMapper objectMapper) {
         this.userRepository = userRepository;
         this.cartRepository = cartRepository;
         this.passwordEncoder = passwordEncoder;
+        this.tokenRevocationService = tokenRevocationService;
+        this.registeredEmailFilter = registeredEmailFilter;
+        this.storeMetrics = storeMetrics;
+        this.objectMapper = objectMapper;
     }
 
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    /**
+     * Champs demandés (?fields=), ou tous les champs publics en l'absence de paramètre
+     */
+    public FieldSelection selectFields(String fields) {
+        return fields == null
+                ? FieldSelection.all(UserRepository.FIELDS)
+                : FieldSelection.parse(fields, UserRepository.FIELDS);
+    }
+
+    /**
+     * Utilisateurs réduits aux champs demandés, lus par curseur et écrits au fil de l'eau
+     */
+    @Transactional
+    public void writeUsers(FieldSelection fields, OutputStream outputStream) throws IOException {
+        try (Stream<Tuple> rows = userRepository.streamFields(fields.without("roles"), fields.includes("roles"), null);
+             JsonArrayWriter writer = new JsonArrayWriter(objectMapper, outputStream)) {
+            Iterator<Map<String, Object>> users = new UserRowFolder(rows.iterator(), fields);
+            while (users.hasNext()) {
+                writer.write(users.next());
+            }
+            writer.finish();
+        }
+    }
+
+    @Transactional
+    public Map<String, Object> getUserFields(Long id, String fields) {
+        FieldSelection selection = FieldSelection.parse(fields, UserRepository.FIELDS);
+        try (Stream<Tuple> rows = userRepository.streamFields(selection.without("roles"), selection.includes("roles"), id)) {
+            Iterator<Map<String, Object>> users = new UserRowFolder(rows.iterator(), selection);
+            if (!users.hasNext()) {
+                throw new ResourceNotFoundException("User not found with id: " + id);
+            }
+            return users.next();
+        }
+    }
+
+    /**
+     * Annuaire paginé des utilisateurs, avec recherche optionnelle par préfixe d'email ou de nom
+     */
+    public Page<UserSummaryDto> getUserDirectory(String query, Pageable pageable) {
+        Page<UserSummaryDto> page = StringUtils.hasText(query)
+                ? userRepository.searchSummaries(toLikePrefix(query), pageable)
+                : userRepository.findSummaries(pageable);
+
+        if (!page.isEmpty()) {
+            List<Long> ids = page.getContent().stream().map(UserSummaryDto::getId).toList();
+            attachRoles(page.getContent(), userRepository.findRolesByUserIds(ids));
+        }
+        return page;
+    }
+
+    /**
+     * Export CSV en flux : les lignes sont lues par curseur et écrites au fil de l'eau
+     */
+    @Transactional
+    public void exportUserDirectoryCsv(OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("id,name,email,address,phone\n");
+        try (Stream<UserSummaryDto> users = userRepository.streamSummaries()) {
+            for (UserSummaryDto user : (Iterable<UserSummaryDto>) users::iterator) {
+                writer.write(String.valueOf(user.getId()));
+                writer.write(',');
+                writer.write(csv(user.getName()));
+                writer.write(',');
+                writer.write(csv(user.getEmail()));
+                writer.write(',');
+                writer.write(csv(user.getAddress()));
+                writer.write(',');
+                writer.write(csv(user.getPhone()));
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private void attachRoles(List<UserSummaryDto> users, List<Object[]> userRoles) {
+        Map<Long, UserSummaryDto> byId = new HashMap<>();
+        users.forEach(user -> byId.put(user.getId(), user));
+        for (Object[] row : userRoles) {
+            UserSummaryDto user = byId.get((Long) row[0]);
+            if (user != null) {
+                user.getRoles().add((Role) row[1]);
+            }
+        }
+    }
+
+    private static String toLikePrefix(String query) {
+        String escaped = query.trim().toLowerCase(Locale.ROOT)
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return escaped + "%";
+    }
+
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        // Un tableur évaluerait la cellule comme une formule : on la force en texte
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
     }
 
     public User getUserById(Long id) {
@@ -58,7 +195,7 @@ public class UserService {
     }
     @Transactional
     public User createUser(UserDto userDto) {
-        if (userRepository.existsByEmail(userDto.getEmail())) {
+        if (emailExists(userDto.getEmail())) {
             throw new IllegalArgumentException("Email already in use");
         }
 
@@ -70,11 +207,13 @@ public class UserService {
         user.setPhone(userDto.getPhone());
         user.setRoles(Collections.singleton(Role.ROLE_USER));
         user = userRepository.save(user);
+        registeredEmailFilter.add(user.getEmail());
 
         // Create an empty cart for the new user
         Cart cart = new Cart();
         cart.setUser(user);
         cartRepository.save(cart);
+        storeMetrics.cartCreated();
 
         return user;
     }
@@ -88,10 +227,11 @@ public class UserService {
         }
 
         if (userDto.getEmail() != null && !userDto.getEmail().equals(user.getEmail())) {
-            if (userRepository.existsByEmail(userDto.getEmail())) {
+            if (emailExists(userDto.getEmail())) {
                 throw new IllegalArgumentException("Email already in use");
             }
             user.setEmail(userDto.getEmail());
+            registeredEmailFilter.add(userDto.getEmail());
         }
 
         if (userDto.getPassword() != null) {
@@ -109,6 +249,12 @@ public class UserService {
         return userRepository.save(user);
     }
 
+    // Le filtre n'évite la requête que pour les emails récemment confirmés absents
+    private boolean emailExists(String email) {
+        return registeredEmailFilter.find(email,
+                e -> userRepository.existsByEmail(e) ? Optional.of(Boolean.TRUE) : Optional.empty()).isPresent();
+    }
+
     @Transactional
     public void deleteUser(Long id) {
         if (!userRepository.existsById(id)) {
@@ -128,7 +274,62 @@ public class UserService {
     public User removeAdminRole(Long id) {
         User user = getUserById(id);
         user.getRoles().remove(Role.ROLE_ADMIN);
-        return userRepository.save(user);
+        user = userRepository.save(user);
+
+        // Les tokens déjà émis portent encore l'ancien rôle
+        tokenRevocationService.revokeAllTokensForUser(id);
+        return user;
     }
-}
 
+    @Transactional
+    public void revokeAllTokens(Long id) {
+        if (!userRepository.existsById(id)) {
+            throw new ResourceNotFoundException("User not found with id: " + id);
+        }
+        tokenRevocationService.revokeAllTokensForUser(id);
+    }
+
+    /**
+     * Regroupe les lignes consécutives d'un même utilisateur (une par rôle) en une seule map
+     */
+    private static final class UserRowFolder implements Iterator<Map<String, Object>> {
+
+        private final Iterator<Tuple> rows;
+        private final FieldSelection columns;
+        private final boolean withRoles;
+        private Tuple pending;
+
+        UserRowFolder(Iterator<Tuple> rows, FieldSelection fields) {
+            this.rows = rows;
+            this.columns = fields.without("roles");
+            this.withRoles = fields.includes("roles");
+            this.pending = rows.hasNext() ? rows.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending != null;
+        }
+
+        @Override
+        public Map<String, Object> next() {
+            if (pending == null) {
+                throw new NoSuchElementException();
+            }
+            Long id = pending.get(0, Long.class);
+            Map<String, Object> user = columns.toMap(pending, 1);
+            Set<Role> roles = new LinkedHashSet<>();
+            while (pending != null && id.equals(pending.get(0, Long.class))) {
+                Object role = withRoles ? pending.get(columns.size() + 1) : null;
+                if (role != null) {
+                    roles.add((Role) role);
+                }
+                pending = rows.hasNext() ? rows.next() : null;
+            }
+            if (withRoles) {
+                user.put("roles", roles);
+            }
+            return user;
+        }
+    }
+}
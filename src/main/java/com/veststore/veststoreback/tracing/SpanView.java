@@ -0,0 +1,14 @@
+package com.veststore.veststoreback.tracing;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One span of a kept trace, with its children, as returned by /api/admin/traces/{traceId}.
+ *
+ * @param startOffsetMs start relative to the beginning of the trace
+ */
+public record SpanView(String spanId, String parentSpanId, String name, String kind,
+                       double startOffsetMs, double durationMs, boolean error,
+                       Map<String, String> attributes, List<SpanView> children) {
+}
@@ -0,0 +1,287 @@
+package com.veststore.veststoreback.tracing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tail-based sampling exporter: spans are buffered per trace until the local root span ends,
+ * then the whole trace is kept if it was slow, failed, or falls in the baseline sample. Kept
+ * traces live in a bounded in-memory ring (queried through /api/admin/traces) and can also be
+ * appended to a JSON-lines file, rotated to {@code <file>.1} when it reaches its size limit.
+ * Every request must therefore be recorded (sampling probability 1.0); the decision to keep
+ * is made here. A trace holds at most maxSpansPerTrace spans (plus its root), the others are
+ * only counted.
+ */
+public class TailSamplingSpanExporter implements SpanExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TailSamplingSpanExporter.class);
+    private static final AttributeKey<String> EXCEPTION = AttributeKey.stringKey("exception");
+    private static final AttributeKey<String> ERROR = AttributeKey.stringKey("error");
+
+    private final long slowThresholdNanos;
+    private final double baselineSampleRate;
+    private final int maxKeptTraces;
+    private final int maxPendingTraces;
+    private final long pendingTimeoutNanos;
+    private final int maxSpansPerTrace;
+    private final Path exportFile;
+    private final Path rotatedExportFile;
+    private final long exportFileMaxBytes;
+    private final ObjectMapper objectMapper;
+
+    // Accès sous le verrou de l'instance : export() est appelé par le thread du BatchSpanProcessor
+    private final LinkedHashMap<String, PendingTrace> pending = new LinkedHashMap<>();
+    private final LinkedHashMap<String, KeptTrace> kept = new LinkedHashMap<>();
+    private long droppedTraces;
+    private long droppedSpans;
+
+    // Écritures du fichier hors du verrou de l'instance : /api/admin/traces n'attend pas le disque
+    private final Object fileLock = new Object();
+
+    public TailSamplingSpanExporter(long slowThresholdMs, double baselineSampleRate, int maxKeptTraces,
+                                    int maxPendingTraces, long pendingTimeoutMs, int maxSpansPerTrace,
+                                    String exportFile, long exportFileMaxBytes, ObjectMapper objectMapper) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.baselineSampleRate = baselineSampleRate;
+        this.maxKeptTraces = maxKeptTraces;
+        this.maxPendingTraces = maxPendingTraces;
+        this.pendingTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(pendingTimeoutMs);
+        this.maxSpansPerTrace = maxSpansPerTrace;
+        this.exportFile = exportFile == null || exportFile.isBlank() ? null : Path.of(exportFile);
+        this.rotatedExportFile = this.exportFile == null ? null : Path.of(exportFile + ".1");
+        this.exportFileMaxBytes = exportFileMaxBytes;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        List<TraceView> toWrite = new ArrayList<>();
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (SpanData span : spans) {
+                String traceId = span.getTraceId();
+                KeptTrace alreadyKept = kept.get(traceId);
+                if (alreadyKept != null) {
+                    // Span terminé après la racine (travail asynchrone) : rattaché à la trace gardée
+                    alreadyKept.add(span);
+                    continue;
+                }
+                PendingTrace trace = pending.computeIfAbsent(traceId, id -> new PendingTrace(now));
+                trace.add(span);
+                if (isLocalRoot(span)) {
+                    pending.remove(traceId);
+                    KeptTrace decided = decide(trace, span);
+                    if (decided != null) {
+                        keep(traceId, decided);
+                        if (exportFile != null) {
+                            toWrite.add(toView(traceId, decided));
+                        }
+                    }
+                }
+            }
+            evictPending(now);
+        }
+        for (TraceView view : toWrite) {
+            append(view);
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private KeptTrace decide(PendingTrace trace, SpanData root) {
+        List<SpanData> spans = trace.spans;
+        long duration = root.getEndEpochNanos() - root.getStartEpochNanos();
+        String reason;
+        if (spans.stream().anyMatch(TailSamplingSpanExporter::isError)) {
+            reason = "error";
+        } else if (duration >= slowThresholdNanos) {
+            reason = "slow";
+        } else if (ThreadLocalRandom.current().nextDouble() < baselineSampleRate) {
+            reason = "sampled";
+        } else {
+            return null;
+        }
+        return new KeptTrace(reason, trace);
+    }
+
+    private void keep(String traceId, KeptTrace trace) {
+        kept.put(traceId, trace);
+        if (kept.size() > maxKeptTraces) {
+            kept.remove(kept.keySet().iterator().next());
+        }
+    }
+
+    // Traces dont la racine n'arrive jamais (ou trop tard) : les plus anciennes d'abord
+    private void evictPending(long now) {
+        Iterator<PendingTrace> it = pending.values().iterator();
+        while (it.hasNext()) {
+            PendingTrace trace = it.next();
+            if (now - trace.firstSeenNanos <= pendingTimeoutNanos && pending.size() <= maxPendingTraces) {
+                break;
+            }
+            it.remove();
+            droppedTraces++;
+        }
+    }
+
+    public synchronized List<TraceView> find(int limit, long minDurationMs, boolean errorsOnly, String nameContains) {
+        List<TraceView> result = new ArrayList<>();
+        List<String> ids = new ArrayList<>(kept.keySet());
+        Collections.reverse(ids);
+        for (String id : ids) {
+            TraceView view = toView(id, kept.get(id));
+            if (view.durationMs() < minDurationMs || (errorsOnly && !view.error())
+                    || (nameContains != null && !view.rootName().contains(nameContains))) {
+                continue;
+            }
+            result.add(view.withoutSpans());
+            if (result.size() >= limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    public synchronized Optional<TraceView> get(String traceId) {
+        return Optional.ofNullable(kept.get(traceId)).map(trace -> toView(traceId, trace));
+    }
+
+    public synchronized long getDroppedTraces() {
+        return droppedTraces;
+    }
+
+    public synchronized long getDroppedSpans() {
+        return droppedSpans;
+    }
+
+    public synchronized int getPendingTraces() {
+        return pending.size();
+    }
+
+    private static TraceView toView(String traceId, KeptTrace trace) {
+        SpanData root = trace.spans.stream().filter(TailSamplingSpanExporter::isLocalRoot).findFirst()
+                .orElse(trace.spans.get(0));
+        long traceStart = trace.spans.stream().mapToLong(SpanData::getStartEpochNanos).min().orElse(0);
+
+        Map<String, SpanView> views = new LinkedHashMap<>();
+        trace.spans.stream()
+                .sorted(Comparator.comparingLong(SpanData::getStartEpochNanos))
+                .forEach(span -> views.put(span.getSpanId(), toSpanView(span, traceStart)));
+        List<SpanView> roots = new ArrayList<>();
+        for (SpanView view : views.values()) {
+            SpanView parent = view.parentSpanId() == null ? null : views.get(view.parentSpanId());
+            if (parent != null) {
+                parent.children().add(view);
+            } else {
+                roots.add(view);
+            }
+        }
+        return new TraceView(traceId, root.getName(),
+                Instant.ofEpochSecond(0, root.getStartEpochNanos()),
+                millis(root.getEndEpochNanos() - root.getStartEpochNanos()), trace.spans.size(), trace.droppedSpans,
+                trace.spans.stream().anyMatch(TailSamplingSpanExporter::isError), trace.reason, roots);
+    }
+
+    private static SpanView toSpanView(SpanData span, long traceStart) {
+        Map<String, String> attributes = new TreeMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        String parent = span.getParentSpanContext().isValid() ? span.getParentSpanContext().getSpanId() : null;
+        return new SpanView(span.getSpanId(), parent, span.getName(), span.getKind().name(),
+                millis(span.getStartEpochNanos() - traceStart),
+                millis(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                isError(span), attributes, new ArrayList<>());
+    }
+
+    private void append(TraceView view) {
+        synchronized (fileLock) {
+            try {
+                byte[] line = (objectMapper.writeValueAsString(view) + System.lineSeparator())
+                        .getBytes(StandardCharsets.UTF_8);
+                // Au plus deux fichiers : le courant et le précédent
+                if (Files.exists(exportFile) && Files.size(exportFile) + line.length > exportFileMaxBytes) {
+                    Files.move(exportFile, rotatedExportFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+                Files.write(exportFile, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                logger.warn("Could not append trace {} to {}", view.traceId(), exportFile, e);
+            }
+        }
+    }
+
+    private static boolean isLocalRoot(SpanData span) {
+        return !span.getParentSpanContext().isValid() || span.getParentSpanContext().isRemote();
+    }
+
+    private static boolean isError(SpanData span) {
+        if (span.getStatus().getStatusCode() == StatusCode.ERROR) {
+            return true;
+        }
+        // Les observations Micrometer portent les tags "exception" et "error" à "none" sans erreur
+        return isSet(span.getAttributes().get(EXCEPTION)) || isSet(span.getAttributes().get(ERROR));
+    }
+
+    private static boolean isSet(String value) {
+        return value != null && !"none".equals(value);
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 10_000.0) / 100.0;
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    private class PendingTrace {
+        final long firstSeenNanos;
+        final List<SpanData> spans = new ArrayList<>();
+        int droppedSpans;
+
+        PendingTrace(long firstSeenNanos) {
+            this.firstSeenNanos = firstSeenNanos;
+        }
+
+        // La racine est toujours gardée : c'est elle qui déclenche la décision et nomme la trace
+        void add(SpanData span) {
+            if (spans.size() < maxSpansPerTrace || isLocalRoot(span)) {
+                spans.add(span);
+            } else {
+                droppedSpans++;
+                TailSamplingSpanExporter.this.droppedSpans++;
+            }
+        }
+    }
+
+    private final class KeptTrace extends PendingTrace {
+        final String reason;
+
+        KeptTrace(String reason, PendingTrace trace) {
+            super(trace.firstSeenNanos);
+            this.reason = reason;
+            this.spans.addAll(trace.spans);
+            this.droppedSpans = trace.droppedSpans;
+        }
+    }
+}
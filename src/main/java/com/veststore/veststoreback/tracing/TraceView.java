@@ -0,0 +1,18 @@
+package com.veststore.veststoreback.tracing;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * A kept trace. {@code spans} holds the span tree, or is null in listings.
+ *
+ * @param droppedSpans spans beyond the per-trace limit, counted but not kept
+ * @param keptBecause "slow", "error" or "sampled"
+ */
+public record TraceView(String traceId, String rootName, Instant start, double durationMs, int spanCount,
+                        int droppedSpans, boolean error, String keptBecause, List<SpanView> spans) {
+
+    TraceView withoutSpans() {
+        return new TraceView(traceId, rootName, start, durationMs, spanCount, droppedSpans, error, keptBecause, null);
+    }
+}
@@ -0,0 +1,92 @@
+package com.veststore.veststoreback.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wire formats of the API. The binary formats carry the same documents as JSON, encoded
+ * from the same DTOs, under a versioned vendor media type: a change to the document shape
+ * gets a new version rather than silently breaking compiled clients.
+ * CBOR writes prices as decimal fractions and byte arrays as raw bytes; Smile also
+ * back-references repeated property names, which pays off on long lists.
+ */
+public enum ApiFormat {
+
+    JSON(MediaType.APPLICATION_JSON, ""),
+    CBOR(MediaType.parseMediaType("application/vnd.veststore.v1+cbor"), "-cbor"),
+    SMILE(MediaType.parseMediaType("application/vnd.veststore.v1+smile"), "-smile");
+
+    private final MediaType mediaType;
+    private final String etagSuffix;
+
+    ApiFormat(MediaType mediaType, String etagSuffix) {
+        this.mediaType = mediaType;
+        this.etagSuffix = etagSuffix;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Suffixe ajouté à l'ETag : un ETag fort désigne une seule représentation
+     */
+    public String getEtagSuffix() {
+        return etagSuffix;
+    }
+
+    public JsonFactory newFactory() {
+        return switch (this) {
+            case JSON -> new JsonFactory();
+            case CBOR -> new CBORFactory();
+            case SMILE -> new SmileFactory();
+        };
+    }
+
+    public boolean produces(String contentType) {
+        try {
+            return contentType != null && mediaType.equalsTypeAndSubtype(MediaType.parseMediaType(contentType));
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Format preferred by an Accept header. JSON answers wildcards, a missing or malformed
+     * header and anything else it cannot match (callers that must refuse answer 406 themselves).
+     */
+    public static ApiFormat negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        MimeTypeUtils.sortBySpecificity(accepted);
+        for (MediaType type : accepted) {
+            if (type.getQualityValue() == 0) {
+                continue;
+            }
+            if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return JSON;
+            }
+            if (type.equalsTypeAndSubtype(CBOR.mediaType)) {
+                return CBOR;
+            }
+            if (type.equalsTypeAndSubtype(SMILE.mediaType)) {
+                return SMILE;
+            }
+        }
+        return JSON;
+    }
+}
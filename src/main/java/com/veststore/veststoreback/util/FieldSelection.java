@@ -0,0 +1,105 @@
+package com.veststore.veststoreback.util;
+
+import com.veststore.veststoreback.exception.InvalidFieldSelectionException;
+import jakarta.persistence.Tuple;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Sparse fieldset (?fields=id,name,price) checked against a whitelist that maps each
+ * public field name to its JPQL path. The selection becomes the SELECT clause of a tuple
+ * query, so unselected columns are never read, and each tuple becomes a map holding only
+ * the selected fields. Fields keep the whitelist order whatever the order in the request.
+ */
+public final class FieldSelection {
+
+    private final Map<String, String> paths;
+
+    private FieldSelection(Map<String, String> paths) {
+        this.paths = paths;
+    }
+
+    /**
+     * @param namesAndPaths nom public, chemin JPQL, nom public, chemin JPQL...
+     */
+    public static Map<String, String> whitelist(String... namesAndPaths) {
+        Map<String, String> whitelist = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndPaths.length; i += 2) {
+            whitelist.put(namesAndPaths[i], namesAndPaths[i + 1]);
+        }
+        return Collections.unmodifiableMap(whitelist);
+    }
+
+    public static FieldSelection parse(String fields, Map<String, String> whitelist) {
+        Set<String> requested = Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toSet());
+        if (requested.isEmpty()) {
+            throw new InvalidFieldSelectionException("No field selected, allowed fields: " + whitelist.keySet());
+        }
+        for (String name : requested) {
+            if (!whitelist.containsKey(name)) {
+                throw new InvalidFieldSelectionException("Unknown field '" + name + "', allowed fields: " + whitelist.keySet());
+            }
+        }
+        Map<String, String> paths = new LinkedHashMap<>();
+        whitelist.forEach((name, path) -> {
+            if (requested.contains(name)) {
+                paths.put(name, path);
+            }
+        });
+        return new FieldSelection(paths);
+    }
+
+    public static FieldSelection all(Map<String, String> whitelist) {
+        return new FieldSelection(whitelist);
+    }
+
+    public boolean includes(String name) {
+        return paths.containsKey(name);
+    }
+
+    public boolean isEmpty() {
+        return paths.isEmpty();
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    public FieldSelection without(String name) {
+        Map<String, String> remaining = new LinkedHashMap<>(paths);
+        remaining.remove(name);
+        return new FieldSelection(remaining);
+    }
+
+    /**
+     * Colonnes du SELECT ("p.id, p.name") : les chemins viennent de la liste blanche, jamais de la requête.
+     * Pas d'alias : des noms comme "size" sont des mots-clés HQL, les valeurs sont lues par position.
+     */
+    public String selectClause() {
+        return String.join(", ", paths.values());
+    }
+
+    public Map<String, Object> toMap(Tuple tuple) {
+        return toMap(tuple, 0);
+    }
+
+    /**
+     * @param firstIndex position de la première colonne sélectionnée dans le tuple
+     */
+    public Map<String, Object> toMap(Tuple tuple, int firstIndex) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        int index = firstIndex;
+        for (String name : paths.keySet()) {
+            values.put(name, tuple.get(index++));
+        }
+        return values;
+    }
+}
@@ -0,0 +1,47 @@
+package com.veststore.veststoreback.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a JSON array element by element: each element is serialized as soon as it is
+ * written, so memory stays flat whatever the number of elements. The array is encoded by
+ * the mapper's factory, so a CBOR or Smile mapper streams the same array in that format.
+ * The array is only closed by {@link #finish()}: a stream that fails half-way leaves a
+ * truncated document that no client can mistake for a complete (shorter) list.
+ */
+public class JsonArrayWriter implements Closeable {
+
+    private final JsonGenerator generator;
+    private long count;
+
+    public JsonArrayWriter(ObjectMapper objectMapper, OutputStream outputStream) throws IOException {
+        this.generator = objectMapper.createGenerator(outputStream)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+        generator.writeStartArray();
+    }
+
+    public void write(Object element) throws IOException {
+        generator.writeObject(element);
+        count++;
+    }
+
+    public void finish() throws IOException {
+        generator.writeEndArray();
+        generator.flush();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,102 @@
+package com.veststore.veststoreback.util;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * An SSE connection fed through a bounded buffer. Producers only ever {@link #offer} events:
+ * writing to the socket happens on the executor, one drain at a time per subscriber, so a
+ * client that reads slowly never holds up the thread that produced the event. When the buffer
+ * is full the subscriber is closed instead of buffering more: the client reconnects and
+ * starts again from a fresh snapshot.
+ */
+public class SseSubscriber {
+
+    private final SseEmitter emitter;
+    private final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+    private final Executor executor;
+    private final Runnable onClose;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    /**
+     * @param onClose appelé une seule fois, quelle que soit la cause de la fermeture
+     */
+    public SseSubscriber(long timeoutMs, int capacity, Executor executor, Runnable onClose) {
+        this.emitter = new SseEmitter(timeoutMs);
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.executor = executor;
+        this.onClose = onClose;
+        emitter.onCompletion(this::release);
+        emitter.onTimeout(this::close);
+        emitter.onError(error -> release());
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    public boolean isClosed() {
+        return closed.get();
+    }
+
+    /**
+     * @return false si l'abonné est fermé, ou vient de l'être parce que son tampon est plein
+     */
+    public boolean offer(SseEmitter.SseEventBuilder event) {
+        if (closed.get()) {
+            return false;
+        }
+        if (!buffer.offer(event)) {
+            close();
+            return false;
+        }
+        scheduleDrain();
+        return true;
+    }
+
+    public void close() {
+        if (release()) {
+            // complete() attend la fin d'un envoi en cours : jamais sur le thread producteur
+            executor.execute(emitter::complete);
+        }
+    }
+
+    private boolean release() {
+        if (!closed.compareAndSet(false, true)) {
+            return false;
+        }
+        buffer.clear();
+        onClose.run();
+        return true;
+    }
+
+    private void scheduleDrain() {
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            SseEmitter.SseEventBuilder event;
+            while (!closed.get() && (event = buffer.poll()) != null) {
+                emitter.send(event);
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client parti : le conteneur signale aussi l'erreur, release() ne s'exécute qu'une fois
+            close();
+        } finally {
+            draining.set(false);
+        }
+        // Un événement arrivé entre le dernier poll et la remise à zéro ne doit pas attendre le suivant
+        if (!closed.get() && !buffer.isEmpty()) {
+            scheduleDrain();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- Executed after Hibernate's ddl-auto (spring.jpa.defer-datasource-initialization=true)
+-- for indexes that JPA annotations cannot express.
+
+-- Prefix search of the admin user directory: lower(col) LIKE 'abc%'
+CREATE INDEX IF NOT EXISTS idx_users_email_lower_prefix ON users (lower(email) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_users_name_lower_prefix ON users (lower(name) text_pattern_ops);
+
+-- Catalog change log: entries still waiting for the sequencer
+CREATE INDEX IF NOT EXISTS idx_catalog_changes_unsequenced ON catalog_changes (id) WHERE seq IS NULL;
+
+-- Order event outbox: entries still waiting for the sequencer
+CREATE INDEX IF NOT EXISTS idx_order_events_unsequenced ON order_events (id) WHERE seq IS NULL;
+
+-- Low-stock index resync: only the products at or below their threshold
+CREATE INDEX IF NOT EXISTS idx_products_low_stock ON products (id) WHERE stock <= low_stock_threshold;
@@ -0,0 +1,134 @@
+package com.veststore.veststoreback.perf;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates a small catalog through the public API when the database holds fewer products
+ * than requested. Uses a fixed seed so that repeated runs produce the same catalog.
+ * Also provides the shoppers and the stock needed by cart and checkout workloads.
+ */
+final class CatalogSeeder {
+
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL"};
+    private static final String[] COLORS = {"noir", "blanc", "rouge", "bleu", "vert", "gris"};
+    private static final String USER_PASSWORD = "bench-secret";
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final List<Long> productIds = new ArrayList<>();
+    private final List<Long> categoryIds = new ArrayList<>();
+
+    CatalogSeeder(HttpClient client, String baseUrl) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+    }
+
+    void ensureProducts(int count) throws IOException, InterruptedException {
+        for (JsonNode category : get("/api/categories")) {
+            categoryIds.add(category.get("id").asLong());
+        }
+        for (JsonNode product : get("/api/products")) {
+            productIds.add(product.get("id").asLong());
+        }
+
+        Random random = new Random(42);
+        while (categoryIds.size() < 10) {
+            JsonNode created = post("/api/categories", "{\"name\":\"bench-category-" + categoryIds.size() + "\"}");
+            categoryIds.add(created.get("id").asLong());
+        }
+        while (productIds.size() < count) {
+            String body = mapper.createObjectNode()
+                    .put("name", "bench-product-" + productIds.size())
+                    .put("description", "Produit généré pour les benchmarks")
+                    .put("size", SIZES[random.nextInt(SIZES.length)])
+                    .put("color", COLORS[random.nextInt(COLORS.length)])
+                    .put("price", 5 + random.nextInt(20000) / 100.0)
+                    .put("stock", random.nextInt(200))
+                    .put("categoryId", categoryIds.get(random.nextInt(categoryIds.size())))
+                    .put("imageUrl", "bench.png")
+                    .toString();
+            productIds.add(post("/api/products", body).get("id").asLong());
+        }
+    }
+
+    /**
+     * Registers bench-user-N accounts, or logs into them when a previous run created them.
+     */
+    List<Long> ensureUsers(int count) throws IOException, InterruptedException {
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String email = "bench-user-" + i + "@bench.io";
+            String credentials = mapper.createObjectNode()
+                    .put("email", email)
+                    .put("password", USER_PASSWORD)
+                    .toString();
+            HttpResponse<String> login = send("POST", "/api/auth/login", credentials);
+            JsonNode auth = login.statusCode() < 300
+                    ? mapper.readTree(login.body())
+                    : post("/api/auth/register", mapper.createObjectNode()
+                            .put("name", "bench-user-" + i)
+                            .put("email", email)
+                            .put("password", USER_PASSWORD)
+                            .toString());
+            userIds.add(auth.get("userId").asLong());
+        }
+        return userIds;
+    }
+
+    /**
+     * Tops up the stock of the given products so that checkouts never fail for lack of stock.
+     */
+    void ensureStock(List<Long> ids, int minimum) throws IOException, InterruptedException {
+        for (Long id : ids) {
+            int stock = get("/api/products/" + id).get("stock").asInt();
+            if (stock < minimum) {
+                HttpResponse<String> response = send("PATCH", "/api/products/" + id + "/stock?quantity=" + (minimum - stock), null);
+                if (response.statusCode() >= 300) {
+                    throw new IOException("PATCH stock of " + id + " failed with " + response.statusCode());
+                }
+            }
+        }
+    }
+
+    List<Long> productIds() {
+        return productIds;
+    }
+
+    List<Long> categoryIds() {
+        return categoryIds;
+    }
+
+    private JsonNode get(String path) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        return mapper.readTree(response.body());
+    }
+
+    private JsonNode post(String path, String json) throws IOException, InterruptedException {
+        HttpResponse<String> response = send("POST", path, json);
+        if (response.statusCode() >= 300) {
+            throw new IOException("POST " + path + " failed with " + response.statusCode() + ": " + response.body());
+        }
+        return mapper.readTree(response.body());
+    }
+
+    private HttpResponse<String> send(String method, String path, String json) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path));
+        if (json != null) {
+            request.header("Content-Type", "application/json");
+        }
+        request.method(method, json == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(json));
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,264 @@
+package com.veststore.veststoreback.perf;
+
+import com.veststore.veststoreback.VestStoreBackApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Compares throughput and latency of the platform-thread and virtual-thread serving modes
+ * on JDBC-bound requests. Each mode runs in its own forked JVM, so neither inherits the JIT
+ * profile or the heap of the other, and boots the application against the configured database
+ * with the response cache and the Hibernate second-level cache disabled: catalog reads, cart
+ * reads, cart writes and checkouts all reach the database. Each client shops as its own user.
+ * <p>
+ * Usage (database from application.properties, or override with --spring.datasource.url=...):
+ * <pre>
+ * ./mvnw -Pperf test-compile exec:exec \
+ *     -Dperf.main=com.veststore.veststoreback.perf.ServingModeBenchmark \
+ *     -Dperf.args="--clients=400 --warmup=10 --duration=30"
+ * </pre>
+ * Add --mode=virtual (or platform) to run a single mode in the current JVM. The forked JVMs
+ * get the same JVM options as the launcher: add -Djdk.tracePinnedThreads=short to
+ * perf.jvmArgs to report virtual threads pinned while blocking. Results are printed and
+ * written to target/serving-mode-benchmark.csv.
+ */
+public final class ServingModeBenchmark {
+
+    private static final String[] MODES = {"platform", "virtual"};
+    private static final String CSV_HEADER = "mode,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        Path csv = Path.of(options.getOrDefault("csv", Path.of("target", "serving-mode-benchmark.csv").toString()));
+        String mode = options.get("mode");
+        if (mode != null) {
+            runMode(mode, options, args, csv);
+            return;
+        }
+
+        Files.createDirectories(csv.toAbsolutePath().getParent());
+        Files.writeString(csv, CSV_HEADER + System.lineSeparator());
+        for (String forkedMode : MODES) {
+            int exitCode = fork(forkedMode, args, csv);
+            if (exitCode != 0) {
+                throw new IllegalStateException("Benchmark of mode " + forkedMode + " failed with exit code " + exitCode);
+            }
+        }
+        System.out.println("Results written to " + csv.toAbsolutePath());
+    }
+
+    /**
+     * Runs one mode in a fresh JVM with the launcher's JVM options and classpath, and waits for it.
+     */
+    private static int fork(String mode, String[] args, Path csv) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ServingModeBenchmark.class.getName());
+        command.addAll(Arrays.asList(args));
+        command.add("--mode=" + mode);
+        command.add("--csv=" + csv.toAbsolutePath());
+        return new ProcessBuilder(command).inheritIO().start().waitFor();
+    }
+
+    private static void runMode(String mode, Map<String, String> options, String[] args, Path csv) throws Exception {
+        int clients = Integer.parseInt(options.getOrDefault("clients", "400"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "30"));
+        int products = Integer.parseInt(options.getOrDefault("products", "500"));
+        int poolSize = Integer.parseInt(options.getOrDefault("pool-size", "20"));
+        List<String> springArgs = Arrays.stream(args).filter(arg -> arg.startsWith("--spring.")).toList();
+
+        // Passés en arguments de ligne de commande pour primer sur application.properties
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + mode.equals("virtual"),
+                // même pool JDBC dans les deux modes, seul le modèle de threads change
+                "--spring.datasource.hikari.maximum-pool-size=" + poolSize,
+                "--application.datasource.guard.max-concurrent=" + poolSize,
+                // sans caches, chaque requête va jusqu'à la base : c'est l'attente JDBC qu'on mesure
+                "--application.catalog-cache.enabled=false",
+                "--spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                "--spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                "--application.rate-limit.enabled=false",
+                "--logging.level.com.veststore=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        appArgs.addAll(springArgs);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VestStoreBackApplication.class)
+                .run(appArgs.toArray(String[]::new))) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            Workload workload = Workload.prepare(baseUrl, products, clients);
+
+            System.out.printf("[%s] warming up for %ds with %d clients%n", mode, warmupSeconds, clients);
+            workload.run(clients, Duration.ofSeconds(warmupSeconds));
+
+            System.out.printf("[%s] measuring for %ds%n", mode, durationSeconds);
+            Result result = workload.run(clients, Duration.ofSeconds(durationSeconds)).named(mode);
+            System.out.println(result);
+            appendCsv(result, csv);
+        }
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && !arg.startsWith("--spring.") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+        return options;
+    }
+
+    private static void appendCsv(Result r, Path file) throws IOException {
+        Files.writeString(file, String.format(Locale.ROOT, "%s,%d,%d,%.1f,%.2f,%.2f,%.2f%n",
+                        r.mode, r.requests, r.errors, r.throughput, r.p50Ms, r.p99Ms, r.maxMs),
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Each client shops as its own user and cycles through the same sequence of requests:
+     * catalog reads (single product, products of a category, category listing), cart reads,
+     * additions to the cart and a checkout that writes the order and the stock.
+     */
+    private record Workload(HttpClient client, String baseUrl, List<Long> productIds, List<Long> categoryIds,
+                            List<Long> cartProductIds, List<Long> userIds) {
+
+        // Stock de départ des produits mis au panier : les commandes ne doivent jamais échouer faute de stock
+        private static final int CART_PRODUCTS = 100;
+        private static final int CART_STOCK = 1_000_000;
+        private static final int STEPS = 10;
+
+        static Workload prepare(String baseUrl, int products, int clients) throws Exception {
+            HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+            CatalogSeeder seeder = new CatalogSeeder(client, baseUrl);
+            seeder.ensureProducts(products);
+            List<Long> cartProductIds = seeder.productIds().subList(0, Math.min(CART_PRODUCTS, seeder.productIds().size()));
+            seeder.ensureStock(cartProductIds, CART_STOCK);
+            return new Workload(client, baseUrl, seeder.productIds(), seeder.categoryIds(),
+                    cartProductIds, seeder.ensureUsers(clients));
+        }
+
+        Result run(int clients, Duration duration) throws InterruptedException {
+            long deadline = System.nanoTime() + duration.toNanos();
+            AtomicLong errors = new AtomicLong();
+            List<long[]> perClient = Collections.synchronizedList(new ArrayList<>());
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (int i = 0; i < clients; i++) {
+                    long userId = userIds.get(i);
+                    executor.submit(() -> {
+                        LongList latencies = new LongList();
+                        int step = 0;
+                        while (System.nanoTime() < deadline) {
+                            long start = System.nanoTime();
+                            try {
+                                HttpResponse<Void> response = client.send(nextRequest(userId, step++ % STEPS),
+                                        HttpResponse.BodyHandlers.discarding());
+                                if (response.statusCode() >= 400) {
+                                    errors.incrementAndGet();
+                                }
+                            } catch (IOException e) {
+                                errors.incrementAndGet();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                return;
+                            }
+                            latencies.add(System.nanoTime() - start);
+                        }
+                        perClient.add(latencies.toArray());
+                    });
+                }
+            }
+            return Result.of(perClient, errors.get(), duration);
+        }
+
+        private HttpRequest nextRequest(long userId, int step) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            return switch (step) {
+                case 0, 3, 6 -> get("/api/products/" + productIds.get(random.nextInt(productIds.size())));
+                case 1 -> get("/api/products/category/" + categoryIds.get(random.nextInt(categoryIds.size())));
+                case 2 -> get("/api/categories");
+                case 4, 7 -> post("/api/cart/items?userId=" + userId, HttpRequest.BodyPublishers.ofString(
+                        "{\"productId\":" + cartProductIds.get(random.nextInt(cartProductIds.size()))
+                                + ",\"quantity\":1,\"size\":\"M\",\"color\":\"noir\"}"));
+                case 5, 8 -> get("/api/cart/" + userId);
+                default -> post("/api/cart/checkout?userId=" + userId, HttpRequest.BodyPublishers.noBody());
+            };
+        }
+
+        private HttpRequest get(String path) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30)).GET().build();
+        }
+
+        private HttpRequest post(String path, HttpRequest.BodyPublisher body) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(body)
+                    .build();
+        }
+    }
+
+    private record Result(String mode, long requests, long errors, double throughput,
+                          double p50Ms, double p99Ms, double maxMs) {
+
+        static Result of(List<long[]> perClient, long errors, Duration duration) {
+            long[] all = perClient.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            double seconds = duration.toNanos() / 1e9;
+            return new Result("", all.length, errors, all.length / seconds,
+                    percentileMs(all, 0.50), percentileMs(all, 0.99), all.length == 0 ? 0 : all[all.length - 1] / 1e6);
+        }
+
+        Result named(String name) {
+            return new Result(name, requests, errors, throughput, p50Ms, p99Ms, maxMs);
+        }
+
+        private static double percentileMs(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%-8s requests=%d errors=%d throughput=%.1f req/s p50=%.2fms p99=%.2fms max=%.2fms",
+                    mode, requests, errors, throughput, p50Ms, p99Ms, maxMs);
+        }
+    }
+
+    private static final class LongList {
+        private long[] values = new long[1024];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
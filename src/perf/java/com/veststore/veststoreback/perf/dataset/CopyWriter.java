@@ -0,0 +1,93 @@
+package com.veststore.veststoreback.perf.dataset;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into a table with COPY ... FROM STDIN (text format). Rows are built in a
+ * reusable buffer and flushed to the driver in large chunks.
+ */
+final class CopyWriter implements AutoCloseable {
+
+    private static final int FLUSH_THRESHOLD = 1 << 20;
+
+    private final PGCopyOutputStream out;
+    private final StringBuilder row = new StringBuilder(256);
+    private final StringBuilder buffer = new StringBuilder(FLUSH_THRESHOLD + 4096);
+    private boolean firstColumn = true;
+    private long rows;
+
+    CopyWriter(Connection connection, String table, String columns) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        this.out = new PGCopyOutputStream(pgConnection, "COPY " + table + " (" + columns + ") FROM STDIN", 1 << 16);
+    }
+
+    CopyWriter column(long value) {
+        separator();
+        row.append(value);
+        return this;
+    }
+
+    CopyWriter column(Object value) {
+        separator();
+        if (value == null) {
+            row.append("\\N");
+        } else {
+            escape(value.toString());
+        }
+        return this;
+    }
+
+    void endRow() throws IOException {
+        buffer.append(row).append('\n');
+        row.setLength(0);
+        firstColumn = true;
+        rows++;
+        if (buffer.length() >= FLUSH_THRESHOLD) {
+            flush();
+        }
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    private void separator() {
+        if (!firstColumn) {
+            row.append('\t');
+        }
+        firstColumn = false;
+    }
+
+    private void escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> row.append("\\\\");
+                case '\t' -> row.append("\\t");
+                case '\n' -> row.append("\\n");
+                case '\r' -> row.append("\\r");
+                default -> row.append(c);
+            }
+        }
+    }
+
+    private void flush() throws IOException {
+        out.write(buffer.toString().getBytes(StandardCharsets.UTF_8));
+        buffer.setLength(0);
+    }
+
+    /**
+     * Ends the COPY; the rows become visible when the surrounding transaction commits.
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        out.close();
+    }
+}
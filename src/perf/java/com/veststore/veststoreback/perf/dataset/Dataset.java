@@ -0,0 +1,20 @@
+package com.veststore.veststoreback.perf.dataset;
+
+import java.util.Random;
+
+/**
+ * Id ranges of a generated dataset. Ids are contiguous within each table.
+ */
+public record Dataset(Range categories, Range products, Range users, long cartItems) {
+
+    public record Range(long start, int count) {
+
+        public long random(Random random) {
+            return start + random.nextInt(count);
+        }
+
+        public long at(int index) {
+            return start + index;
+        }
+    }
+}
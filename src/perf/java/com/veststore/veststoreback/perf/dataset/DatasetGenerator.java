@@ -0,0 +1,321 @@
+package com.veststore.veststoreback.perf.dataset;
+
+import com.veststore.veststoreback.VestStoreBackApplication;
+import com.veststore.veststoreback.model.CartStatus;
+import com.veststore.veststoreback.model.ProductSize;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a deterministic, realistically skewed dataset and bulk-loads it with COPY.
+ * <p>
+ * The application is started (on a random port) only so that Hibernate creates the schema;
+ * rows are then streamed straight into PostgreSQL, bypassing JPA. Product popularity in cart
+ * items follows a Zipf distribution, and cart items cover every {@link CartStatus}. Cart
+ * items are loaded in fixed-size chunks over several connections; each chunk has its own
+ * seed, so the data does not depend on the thread count.
+ * <pre>
+ * ./mvnw -Pperf test-compile exec:exec \
+ *     -Dperf.main=com.veststore.veststoreback.perf.dataset.DatasetGenerator \
+ *     -Dperf.args="--truncate --products=1000000 --users=500000 --cart-items=20000000"
+ * </pre>
+ * Options: --categories, --products, --users, --cart-items, --skew, --stock-floor, --seed,
+ * --threads, --truncate (empties the catalog, user and cart tables first). The database is
+ * the one from application.properties unless --spring.datasource.url=... is given.
+ * All generated users share the password {@value #PASSWORD}; the first one is an admin.
+ */
+public final class DatasetGenerator {
+
+    public static final String PASSWORD = "password";
+    // BCrypt (cost 10) de "password"
+    private static final String PASSWORD_HASH = "$2a$10$GRLdNijSQMUvl/au9ofL.eDwmoohzzS7.rmNSJZ.0FxO/BTk76klW";
+
+    private static final int IMAGE_POOL = 32;
+    private static final int CHUNK_SIZE = 500_000;
+    private static final String[] COLORS = {"noir", "blanc", "rouge", "bleu", "vert", "gris", "beige", "marine", "kaki", "rose"};
+    private static final String[] KINDS = {"T-shirt", "Chemise", "Pantalon", "Jean", "Veste", "Pull", "Robe", "Jupe", "Short", "Manteau"};
+    private static final String[] CITIES = {"Paris", "Lyon", "Marseille", "Toulouse", "Lille", "Nantes", "Bordeaux", "Tunis", "Sfax"};
+    // Historique réaliste : surtout des commandes livrées, peu de paniers en cours
+    private static final CartStatus[] STATUS_WHEEL = statusWheel(Map.of(
+            CartStatus.EN_ATTENTE, 10, CartStatus.VALIDEE, 15, CartStatus.EXPEDIEE, 15,
+            CartStatus.LIVREE, 50, CartStatus.ANNULEE, 10));
+
+    private final DataSource dataSource;
+    private final DatasetSpec spec;
+
+    public DatasetGenerator(DataSource dataSource, DatasetSpec spec) {
+        this.dataSource = dataSource;
+        this.spec = spec;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>(List.of("--server.port=0", "--logging.level.com.veststore=WARN"));
+        for (String arg : args) {
+            if (arg.startsWith("--spring.")) {
+                springArgs.add(arg);
+            } else if (arg.startsWith("--")) {
+                int eq = arg.indexOf('=');
+                options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+            }
+        }
+        DatasetSpec spec = DatasetSpec.fromOptions(options, DatasetSpec.defaults());
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VestStoreBackApplication.class)
+                .run(springArgs.toArray(String[]::new))) {
+            DatasetGenerator generator = new DatasetGenerator(context.getBean(DataSource.class), spec);
+            if (Boolean.parseBoolean(options.getOrDefault("truncate", "false"))) {
+                generator.truncate();
+            }
+            System.out.println(generator.generate());
+        }
+    }
+
+    /**
+     * Empties the catalog, user and cart tables and unlinks the product images.
+     */
+    public void truncate() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("SELECT lo_unlink(image) FROM (SELECT DISTINCT image_url AS image FROM products "
+                    + "WHERE image_url IS NOT NULL) images");
+            statement.execute("TRUNCATE cart_items, carts, user_roles, users, products, categories RESTART IDENTITY CASCADE");
+            connection.commit();
+        }
+    }
+
+    public Dataset generate() throws Exception {
+        List<String> foreignKeys = dropForeignKeys();
+        try {
+            return load();
+        } finally {
+            restoreForeignKeys(foreignKeys);
+        }
+    }
+
+    private Dataset load() throws Exception {
+        long started = System.nanoTime();
+        Dataset.Range categories;
+        Dataset.Range products;
+        Dataset.Range users;
+        long carts;
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            categories = new Dataset.Range(nextId(connection, "categories"), spec.categories());
+            products = new Dataset.Range(nextId(connection, "products"), spec.products());
+            users = new Dataset.Range(nextId(connection, "users"), spec.users());
+            carts = nextId(connection, "carts");
+
+            long[] images = createImages(connection, new Random(spec.seed()));
+            copyCategories(connection, categories);
+            copyProducts(connection, products, categories, images);
+            copyUsers(connection, users, carts);
+            connection.commit();
+        }
+        report("catalog and users", spec.categories() + spec.products() + 3L * spec.users(), started);
+
+        long itemsStarted = System.nanoTime();
+        long firstItem;
+        try (Connection connection = dataSource.getConnection()) {
+            firstItem = nextId(connection, "cart_items");
+        }
+        copyCartItems(firstItem, products, carts);
+        report("cart items", spec.cartItems(), itemsStarted);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String table : List.of("categories", "products", "users", "carts", "cart_items")) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                        + "(SELECT COALESCE(max(id), 1) FROM " + table + "))");
+                statement.execute("ANALYZE " + table);
+            }
+        }
+        return new Dataset(categories, products, users, spec.cartItems());
+    }
+
+    /**
+     * Per-row FK triggers dominate COPY time; the constraints are dropped for the load and
+     * re-added afterwards, which validates them in one pass per table.
+     *
+     * @return the ALTER TABLE statements that restore the dropped constraints
+     */
+    private List<String> dropForeignKeys() throws SQLException {
+        List<String> restore = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            List<String> drop = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery("SELECT conrelid::regclass, conname, pg_get_constraintdef(oid) "
+                    + "FROM pg_constraint WHERE contype = 'f' AND conrelid::regclass::text IN "
+                    + "('products', 'user_roles', 'carts', 'cart_items')")) {
+                while (rs.next()) {
+                    drop.add("ALTER TABLE " + rs.getString(1) + " DROP CONSTRAINT " + rs.getString(2));
+                    restore.add("ALTER TABLE " + rs.getString(1) + " ADD CONSTRAINT " + rs.getString(2) + " " + rs.getString(3));
+                }
+            }
+            for (String sql : drop) {
+                statement.execute(sql);
+            }
+        }
+        return restore;
+    }
+
+    private void restoreForeignKeys(List<String> restore) throws SQLException {
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            for (String sql : restore) {
+                statement.execute(sql);
+            }
+        }
+        System.out.printf(Locale.ROOT, "%-18s %12s         in %7.1f s%n", "foreign keys", "",
+                (System.nanoTime() - started) / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    // Les images sont des large objects : COPY ne peut pas les créer, on partage un petit pool d'oid
+    private long[] createImages(Connection connection, Random random) throws SQLException {
+        long[] oids = new long[IMAGE_POOL];
+        try (PreparedStatement statement = connection.prepareStatement("SELECT lo_from_bytea(0, ?)")) {
+            for (int i = 0; i < IMAGE_POOL; i++) {
+                byte[] image = new byte[2048];
+                random.nextBytes(image);
+                statement.setBytes(1, image);
+                try (ResultSet rs = statement.executeQuery()) {
+                    rs.next();
+                    oids[i] = rs.getLong(1);
+                }
+            }
+        }
+        return oids;
+    }
+
+    private void copyCategories(Connection connection, Dataset.Range categories) throws SQLException, IOException {
+        try (CopyWriter copy = new CopyWriter(connection, "categories", "id, name")) {
+            for (int i = 0; i < categories.count(); i++) {
+                copy.column(categories.at(i)).column(KINDS[i % KINDS.length] + " " + (i / KINDS.length + 1)).endRow();
+            }
+        }
+    }
+
+    private void copyProducts(Connection connection, Dataset.Range products, Dataset.Range categories,
+                              long[] images) throws SQLException, IOException {
+        Random random = new Random(spec.seed() + 1);
+        ProductSize[] sizes = ProductSize.values();
+        try (CopyWriter copy = new CopyWriter(connection, "products",
+                "id, name, description, price, size, color, stock, category_id, image_url, low_stock_threshold")) {
+            for (int i = 0; i < products.count(); i++) {
+                long id = products.at(i);
+                int categoryIndex = random.nextInt(categories.count());
+                String color = COLORS[random.nextInt(COLORS.length)];
+                int stock = random.nextInt(50) == 0 ? random.nextInt(5) : random.nextInt(1000);
+                copy.column(id)
+                        .column(KINDS[categoryIndex % KINDS.length] + " " + color + " #" + id)
+                        .column("Coupe " + (random.nextBoolean() ? "droite" : "ajustée") + ", "
+                                + (50 + random.nextInt(51)) + " % coton, référence " + id + ".")
+                        .column(BigDecimal.valueOf(499 + random.nextInt(25_000), 2))
+                        .column(sizes[random.nextInt(sizes.length)])
+                        .column(color)
+                        .column(spec.stockFloor() + stock)
+                        .column(categories.at(categoryIndex))
+                        .column(images[random.nextInt(images.length)])
+                        .column(5)
+                        .endRow();
+            }
+        }
+    }
+
+    private void copyUsers(Connection connection, Dataset.Range users, long firstCart) throws SQLException, IOException {
+        Random random = new Random(spec.seed() + 2);
+        try (CopyWriter copy = new CopyWriter(connection, "users", "id, name, email, password, address, phone")) {
+            for (int i = 0; i < users.count(); i++) {
+                long id = users.at(i);
+                copy.column(id)
+                        .column("Client " + id)
+                        .column("user" + id + "@example.com")
+                        .column(PASSWORD_HASH)
+                        .column((1 + random.nextInt(200)) + " rue de la République, " + CITIES[random.nextInt(CITIES.length)])
+                        .column(String.format("06%08d", random.nextInt(100_000_000)))
+                        .endRow();
+            }
+        }
+        try (CopyWriter copy = new CopyWriter(connection, "user_roles", "user_id, roles")) {
+            for (int i = 0; i < users.count(); i++) {
+                copy.column(users.at(i)).column(i == 0 ? "ROLE_ADMIN" : "ROLE_USER").endRow();
+            }
+        }
+        try (CopyWriter copy = new CopyWriter(connection, "carts", "id, user_id")) {
+            for (int i = 0; i < users.count(); i++) {
+                copy.column(firstCart + i).column(users.at(i)).endRow();
+            }
+        }
+    }
+
+    private void copyCartItems(long firstItem, Dataset.Range products, long firstCart) throws Exception {
+        ZipfDistribution popularity = new ZipfDistribution(products.count(), spec.productSkew(), spec.seed() + 3);
+        ProductSize[] sizes = ProductSize.values();
+        int chunks = (int) ((spec.cartItems() + CHUNK_SIZE - 1) / CHUNK_SIZE);
+
+        ExecutorService executor = Executors.newFixedThreadPool(spec.threads());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                long from = (long) chunk * CHUNK_SIZE;
+                long to = Math.min(spec.cartItems(), from + CHUNK_SIZE);
+                Random random = new Random(spec.seed() * 31 + chunk);
+                futures.add(executor.submit(() -> {
+                    try (Connection connection = dataSource.getConnection()) {
+                        connection.setAutoCommit(false);
+                        try (CopyWriter copy = new CopyWriter(connection, "cart_items",
+                                "id, cart_id, product_id, quantity, size, color, status")) {
+                            for (long i = from; i < to; i++) {
+                                copy.column(firstItem + i)
+                                        .column(firstCart + random.nextInt(spec.users()))
+                                        .column(products.at(popularity.sample(random)))
+                                        .column(1 + random.nextInt(3))
+                                        .column(sizes[random.nextInt(sizes.length)])
+                                        .column(COLORS[random.nextInt(COLORS.length)])
+                                        .column(STATUS_WHEEL[random.nextInt(STATUS_WHEEL.length)])
+                                        .endRow();
+                            }
+                        }
+                        connection.commit();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SELECT COALESCE(max(id), 0) + 1 FROM " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static CartStatus[] statusWheel(Map<CartStatus, Integer> weights) {
+        List<CartStatus> wheel = new ArrayList<>();
+        for (CartStatus status : CartStatus.values()) {
+            wheel.addAll(Collections.nCopies(weights.get(status), status));
+        }
+        return wheel.toArray(CartStatus[]::new);
+    }
+
+    private static void report(String step, long rows, long startedNanos) {
+        double seconds = (System.nanoTime() - startedNanos) / (double) TimeUnit.SECONDS.toNanos(1);
+        System.out.printf(Locale.ROOT, "%-18s %,12d rows in %7.1f s (%,.0f rows/s)%n", step, rows, seconds, rows / seconds);
+    }
+}
@@ -0,0 +1,31 @@
+package com.veststore.veststoreback.perf.dataset;
+
+import java.util.Map;
+
+/**
+ * Size and shape of a generated dataset. The same spec and seed always produce the same rows.
+ *
+ * @param productSkew  Zipf exponent of product popularity in cart items (0 = uniform)
+ * @param stockFloor   added to every product's stock, so that long load tests do not run out
+ * @param threads      connections used in parallel to load cart items
+ */
+public record DatasetSpec(int categories, int products, int users, long cartItems,
+                          double productSkew, int stockFloor, long seed, int threads) {
+
+    public static DatasetSpec defaults() {
+        return new DatasetSpec(50, 1_000_000, 500_000, 20_000_000, 1.1, 0, 42,
+                Math.max(1, Math.min(8, Runtime.getRuntime().availableProcessors())));
+    }
+
+    public static DatasetSpec fromOptions(Map<String, String> options, DatasetSpec defaults) {
+        return new DatasetSpec(
+                Integer.parseInt(options.getOrDefault("categories", String.valueOf(defaults.categories()))),
+                Integer.parseInt(options.getOrDefault("products", String.valueOf(defaults.products()))),
+                Integer.parseInt(options.getOrDefault("users", String.valueOf(defaults.users()))),
+                Long.parseLong(options.getOrDefault("cart-items", String.valueOf(defaults.cartItems()))),
+                Double.parseDouble(options.getOrDefault("skew", String.valueOf(defaults.productSkew()))),
+                Integer.parseInt(options.getOrDefault("stock-floor", String.valueOf(defaults.stockFloor()))),
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(defaults.seed()))),
+                Integer.parseInt(options.getOrDefault("threads", String.valueOf(defaults.threads()))));
+    }
+}
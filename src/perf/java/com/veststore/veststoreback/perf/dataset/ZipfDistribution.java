@@ -0,0 +1,50 @@
+package com.veststore.veststoreback.perf.dataset;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Zipf(s) sampler over ranks 0..n-1 with a precomputed CDF. Ranks are mapped through a
+ * seeded permutation so the popular items are spread across the id range instead of being
+ * the lowest ids.
+ */
+final class ZipfDistribution {
+
+    private final double[] cdf;
+    private final int[] rankToIndex;
+
+    ZipfDistribution(int n, double exponent, long seed) {
+        cdf = new double[n];
+        double sum = 0;
+        for (int rank = 0; rank < n; rank++) {
+            sum += 1.0 / Math.pow(rank + 1, exponent);
+            cdf[rank] = sum;
+        }
+        for (int rank = 0; rank < n; rank++) {
+            cdf[rank] /= sum;
+        }
+
+        rankToIndex = new int[n];
+        for (int i = 0; i < n; i++) {
+            rankToIndex[i] = i;
+        }
+        Random random = new Random(seed);
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = rankToIndex[i];
+            rankToIndex[i] = rankToIndex[j];
+            rankToIndex[j] = tmp;
+        }
+    }
+
+    /**
+     * @return an index in [0, n) drawn with Zipfian popularity
+     */
+    int sample(Random random) {
+        int rank = Arrays.binarySearch(cdf, random.nextDouble());
+        if (rank < 0) {
+            rank = -rank - 1;
+        }
+        return rankToIndex[Math.min(rank, cdf.length - 1)];
+    }
+}
@@ -0,0 +1,43 @@
+package com.veststore.veststoreback.perf.jmh;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.results.format.ResultFormatType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Runs the JMH benchmarks and always writes JSON results to target/jmh/&lt;label&gt;.json
+ * (label = -Djmh.label, e.g. the commit hash, default "latest").
+ * Compare two runs with {@link JmhResultDiff}.
+ * <pre>
+ * ./mvnw -Pperf test-compile exec:exec \
+ *     -Dperf.main=com.veststore.veststoreback.perf.jmh.BenchmarkRunner \
+ *     -Dperf.jvmArgs="-Djmh.label=$(git rev-parse --short HEAD)" -Dperf.args="CartMapping"
+ * </pre>
+ * Extra arguments are standard JMH options (benchmark regexp, -f, -wi, -i, ...).
+ */
+public final class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        String label = System.getProperty("jmh.label", "latest");
+        Path output = Path.of("target", "jmh", label + ".json");
+        Files.createDirectories(output.getParent());
+
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLine);
+        // Les includes du parent s'ajoutent à ceux du builder : le filtre par défaut seulement sans argument
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("com.veststore.veststoreback.perf.jmh.*");
+        }
+        new Runner(options
+                .resultFormat(ResultFormatType.JSON)
+                .result(output.toString())
+                .build())
+                .run();
+        System.out.println("JMH results written to " + output.toAbsolutePath());
+    }
+}
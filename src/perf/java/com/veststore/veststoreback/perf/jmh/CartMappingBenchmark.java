@@ -0,0 +1,47 @@
+package com.veststore.veststoreback.perf.jmh;
+
+import com.veststore.veststoreback.dto.CartDto;
+import com.veststore.veststoreback.model.Cart;
+import com.veststore.veststoreback.model.Product;
+import com.veststore.veststoreback.service.CartService;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cart to DTO mapping: CartService.convertToDto and Cart.getTotalAmount (no database).
+ * The item and admin order listings are projected to CartItemDto by their queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartMappingBenchmark {
+
+    @Param({"5", "50"})
+    public int itemsPerCart;
+
+    private Cart cart;
+    private CartService cartService;
+
+    @Setup
+    public void setUp() {
+        List<Product> products = Fixtures.products(2000, Fixtures.categories(20), 42);
+        cart = Fixtures.cart(1, itemsPerCart, products, 42);
+        cartService = Fixtures.service(CartService.class);
+    }
+
+    @Benchmark
+    public CartDto convertToDto() {
+        return cartService.convertToDto(cart);
+    }
+
+    @Benchmark
+    public BigDecimal totalAmount() {
+        return cart.getTotalAmount();
+    }
+}
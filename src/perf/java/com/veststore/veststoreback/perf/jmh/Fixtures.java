@@ -0,0 +1,146 @@
+package com.veststore.veststoreback.perf.jmh;
+
+import com.veststore.veststoreback.model.*;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+
+/**
+ * Deterministic synthetic data for the microbenchmarks, shaped like production rows:
+ * French product names and descriptions, two-decimal prices and an inline image payload.
+ */
+public final class Fixtures {
+
+    private static final String[] ADJECTIVES = {"Classique", "Slim", "Oversize", "Vintage", "Premium", "Casual", "Sport", "Élégant"};
+    private static final String[] ITEMS = {"Chemise", "Veste", "Pantalon", "Robe", "Pull", "T-shirt", "Manteau", "Jupe"};
+    private static final String[] COLORS = {"noir", "blanc", "rouge", "bleu marine", "vert olive", "gris chiné", "beige"};
+
+    private Fixtures() {
+    }
+
+    public static List<Category> categories(int count) {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Category category = new Category();
+            category.setId((long) i + 1);
+            category.setName(ITEMS[i % ITEMS.length] + "s " + (i / ITEMS.length + 1));
+            categories.add(category);
+        }
+        return categories;
+    }
+
+    public static List<Product> products(int count, List<Category> categories, long seed) {
+        Random random = new Random(seed);
+        byte[] image = new byte[2048];
+        random.nextBytes(image);
+
+        List<Product> products = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Product product = new Product();
+            product.setId((long) i + 1);
+            String item = ITEMS[random.nextInt(ITEMS.length)];
+            product.setName(item + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + (i + 1));
+            product.setDescription(item + " en coton biologique, coupe ajustée, lavable en machine à 30°. "
+                    + "Fabriqué au Portugal. Référence " + Long.toHexString(random.nextLong()));
+            product.setPrice(BigDecimal.valueOf(500 + random.nextInt(20000), 2).setScale(2, RoundingMode.UNNECESSARY));
+            product.setSize(ProductSize.values()[random.nextInt(ProductSize.values().length)]);
+            product.setColor(COLORS[random.nextInt(COLORS.length)]);
+            product.setStock(random.nextInt(150));
+            product.setLowStockThreshold(5);
+            product.setCategory(categories.get(random.nextInt(categories.size())));
+            product.setImageUrl(image);
+            products.add(product);
+        }
+        return products;
+    }
+
+    public static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Client " + id);
+        user.setEmail("client" + id + "@example.com");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BgLhJPtkfD4/vb2r2xX/0WMFsrIW");
+        user.setAddress(id + " rue de la République, 69002 Lyon");
+        user.setPhone("+33 6 12 34 56 78");
+        user.setRoles(new HashSet<>(id % 50 == 0 ? Set.of(Role.ROLE_USER, Role.ROLE_ADMIN) : Set.of(Role.ROLE_USER)));
+        return user;
+    }
+
+    public static Cart cart(long id, int itemCount, List<Product> products, long seed) {
+        Random random = new Random(seed + id);
+        Cart cart = new Cart();
+        cart.setId(id);
+        cart.setUser(user(id));
+        for (int i = 0; i < itemCount; i++) {
+            cart.getItems().add(cartItem(id * 1000 + i, cart, products.get(random.nextInt(products.size())), random));
+        }
+        return cart;
+    }
+
+    public static List<CartItem> cartItems(int count, List<Product> products, long seed) {
+        Random random = new Random(seed);
+        Cart cart = new Cart();
+        cart.setId(1L);
+        cart.setUser(user(1));
+        List<CartItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            items.add(cartItem(i + 1, cart, products.get(random.nextInt(products.size())), random));
+        }
+        return items;
+    }
+
+    private static CartItem cartItem(long id, Cart cart, Product product, Random random) {
+        CartItem item = new CartItem();
+        item.setId(id);
+        item.setCart(cart);
+        item.setProduct(product);
+        item.setQuantity(1 + random.nextInt(4));
+        item.setSize(product.getSize().name());
+        item.setColor(product.getColor());
+        item.setStatus(CartStatus.values()[random.nextInt(CartStatus.values().length)]);
+        return item;
+    }
+
+    /**
+     * Interface stub answering the given methods and returning null or the primitive zero for the rest
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type, Map<String, Object> answers) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (answers.containsKey(method.getName())) {
+                return answers.get(method.getName());
+            }
+            Class<?> returnType = method.getReturnType();
+            if (returnType.isPrimitive() && returnType != void.class) {
+                // Valeur par défaut du type exact (0L, 0.0, false...) : un Integer ferait échouer l'unboxing
+                return Array.get(Array.newInstance(returnType, 1), 0);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Instantiates a service through its constructor, passing the given collaborators by type and null for the others
+     */
+    public static <T> T service(Class<T> type, Object... collaborators) {
+        try {
+            Constructor<?> constructor = type.getConstructors()[0];
+            Object[] args = new Object[constructor.getParameterCount()];
+            Class<?>[] parameterTypes = constructor.getParameterTypes();
+            for (int i = 0; i < parameterTypes.length; i++) {
+                for (Object collaborator : collaborators) {
+                    if (parameterTypes[i].isInstance(collaborator)) {
+                        args[i] = collaborator;
+                    }
+                }
+            }
+            return type.cast(constructor.newInstance(args));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot instantiate " + type.getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.veststore.veststoreback.perf.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files and flags changes beyond a threshold (default 10%).
+ * <pre>
+ * ... -Dperf.main=com.veststore.veststoreback.perf.jmh.JmhResultDiff \
+ *     -Dperf.args="target/jmh/abc123.json target/jmh/def456.json 10"
+ * </pre>
+ * Exits with status 1 when at least one benchmark regressed, so it can gate a CI job.
+ */
+public final class JmhResultDiff {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: JmhResultDiff <baseline.json> <candidate.json> [threshold %]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> candidate = load(new File(args[1]));
+
+        boolean regression = false;
+        System.out.printf(Locale.ROOT, "%-90s %14s %14s %9s%n", "benchmark", "baseline", "candidate", "change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            double oldScore = before.path("primaryMetric").path("score").asDouble();
+            double newScore = entry.getValue().path("primaryMetric").path("score").asDouble();
+            String unit = entry.getValue().path("primaryMetric").path("scoreUnit").asText();
+            double change = (newScore - oldScore) / oldScore * 100;
+
+            // Temps moyen : une hausse est une régression ; débit : c'est l'inverse
+            boolean lowerIsBetter = !"thrpt".equals(entry.getValue().path("mode").asText());
+            boolean worse = lowerIsBetter ? change > threshold : change < -threshold;
+            regression |= worse;
+            System.out.printf(Locale.ROOT, "%-90s %10.3f %-3s %10.3f %-3s %+8.1f%%%s%n",
+                    entry.getKey(), oldScore, shortUnit(unit), newScore, shortUnit(unit), change, worse ? "  REGRESSION" : "");
+        }
+        System.exit(regression ? 1 : 0);
+    }
+
+    private static Map<String, JsonNode> load(File file) throws Exception {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText());
+            result.path("params").fields().forEachRemaining(param ->
+                    key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static String shortUnit(String unit) {
+        return unit.replace("/op", "").replace("ops/", "/");
+    }
+}
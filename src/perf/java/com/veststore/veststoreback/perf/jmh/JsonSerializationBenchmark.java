@@ -0,0 +1,59 @@
+package com.veststore.veststoreback.perf.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veststore.veststoreback.dto.CartDto;
+import com.veststore.veststoreback.model.Category;
+import com.veststore.veststoreback.model.Product;
+import com.veststore.veststoreback.repository.CartItemRepository;
+import com.veststore.veststoreback.service.CartService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Jackson serialization of the product listings and of cart DTOs, with the mapper
+ * configured the way Spring MVC builds it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    @Param({"20", "500"})
+    public int listSize;
+
+    private ObjectMapper objectMapper;
+    private List<Product> products;
+    private List<CartDto> carts;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        List<Category> categories = Fixtures.categories(20);
+        products = Fixtures.products(listSize, categories, 42);
+
+        List<Product> catalog = Fixtures.products(2000, categories, 43);
+        CartService cartService = Fixtures.service(CartService.class,
+                Fixtures.stub(CartItemRepository.class, Map.of()));
+        carts = LongStream.rangeClosed(1, listSize)
+                .mapToObj(id -> cartService.convertToDto(Fixtures.cart(id, 5, catalog, 42)))
+                .toList();
+    }
+
+    @Benchmark
+    public byte[] serializeProducts() throws Exception {
+        return objectMapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public byte[] serializeCarts() throws Exception {
+        return objectMapper.writeValueAsBytes(carts);
+    }
+}
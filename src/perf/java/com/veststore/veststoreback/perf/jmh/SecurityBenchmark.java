@@ -0,0 +1,55 @@
+package com.veststore.veststoreback.perf.jmh;
+
+import com.veststore.veststoreback.model.User;
+import com.veststore.veststoreback.security.JwtTokenProvider;
+import com.veststore.veststoreback.security.UserDetailsImpl;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT verification and principal construction done by JwtAuthenticationFilter on every request
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SecurityBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private String token;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider();
+        // Mêmes valeurs que application.properties
+        ReflectionTestUtils.setField(tokenProvider, "jwtSecret",
+                "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970");
+        ReflectionTestUtils.setField(tokenProvider, "jwtExpirationInMs", 86400000);
+
+        user = Fixtures.user(1234);
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        token = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(token);
+    }
+
+    @Benchmark
+    public String getUserIdFromJWT() {
+        return tokenProvider.getUserIdFromJWT(token);
+    }
+
+    @Benchmark
+    public UserDetailsImpl buildUserDetails() {
+        return UserDetailsImpl.build(user);
+    }
+}
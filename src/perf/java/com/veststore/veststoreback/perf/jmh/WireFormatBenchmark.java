@@ -0,0 +1,97 @@
+package com.veststore.veststoreback.perf.jmh;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veststore.veststoreback.config.WireFormats;
+import com.veststore.veststoreback.dto.CartDto;
+import com.veststore.veststoreback.model.Category;
+import com.veststore.veststoreback.model.Product;
+import com.veststore.veststoreback.repository.CartItemRepository;
+import com.veststore.veststoreback.service.CartService;
+import com.veststore.veststoreback.util.ApiFormat;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encode and decode cost of the product listings and cart DTOs in each {@link ApiFormat},
+ * with the mappers built by {@link WireFormats}. Payload sizes (raw and gzipped) are printed
+ * once per trial, since JMH only measures time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    @Param({"JSON", "CBOR", "SMILE"})
+    public ApiFormat format;
+
+    @Param({"20", "500"})
+    public int listSize;
+
+    private ObjectMapper mapper;
+    private List<Product> products;
+    private List<CartDto> carts;
+    private byte[] encodedProducts;
+    private byte[] encodedCarts;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = new WireFormats(Jackson2ObjectMapperBuilder.json().build()).mapper(format);
+        List<Category> categories = Fixtures.categories(20);
+        products = Fixtures.products(listSize, categories, 42);
+
+        List<Product> catalog = Fixtures.products(2000, categories, 43);
+        CartService cartService = Fixtures.service(CartService.class,
+                Fixtures.stub(CartItemRepository.class, Map.of()));
+        carts = LongStream.rangeClosed(1, listSize)
+                .mapToObj(id -> cartService.convertToDto(Fixtures.cart(id, 5, catalog, 42)))
+                .toList();
+
+        encodedProducts = mapper.writeValueAsBytes(products);
+        encodedCarts = mapper.writeValueAsBytes(carts);
+        if (decodeProducts().length != listSize || decodeCarts().length != listSize) {
+            throw new IllegalStateException(format + " does not round-trip");
+        }
+        System.out.printf("%n%s x%d: products %d bytes (gzip %d), carts %d bytes (gzip %d)%n",
+                format, listSize, encodedProducts.length, gzipSize(encodedProducts),
+                encodedCarts.length, gzipSize(encodedCarts));
+    }
+
+    @Benchmark
+    public byte[] encodeProducts() throws IOException {
+        return mapper.writeValueAsBytes(products);
+    }
+
+    @Benchmark
+    public Product[] decodeProducts() throws IOException {
+        return mapper.readValue(encodedProducts, Product[].class);
+    }
+
+    @Benchmark
+    public byte[] encodeCarts() throws IOException {
+        return mapper.writeValueAsBytes(carts);
+    }
+
+    @Benchmark
+    public CartDto[] decodeCarts() throws IOException {
+        return mapper.readValue(encodedCarts, CartDto[].class);
+    }
+
+    private static int gzipSize(byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(body);
+        }
+        return buffer.size();
+    }
+}
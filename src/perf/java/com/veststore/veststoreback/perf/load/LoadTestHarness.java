@@ -0,0 +1,279 @@
+package com.veststore.veststoreback.perf.load;
+
+import com.veststore.veststoreback.VestStoreBackApplication;
+import com.veststore.veststoreback.perf.dataset.Dataset;
+import com.veststore.veststoreback.perf.dataset.DatasetGenerator;
+import com.veststore.veststoreback.perf.dataset.DatasetSpec;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * End-to-end load test: boots the application against an embedded PostgreSQL (or the
+ * database given with --spring.datasource.url=...), loads a dataset with the
+ * {@link DatasetGenerator} and drives a weighted scenario mix with an open-model (Poisson)
+ * arrival rate.
+ * <p>
+ * Latency is measured from the intended start time of each request, so queueing delays are
+ * not hidden when the server falls behind (coordinated omission). The report gives
+ * throughput, error rate and HdrHistogram p50/p99/p999 per endpoint.
+ * <pre>
+ * ./mvnw -Pperf test-compile exec:exec \
+ *     -Dperf.main=com.veststore.veststoreback.perf.load.LoadTestHarness \
+ *     -Dperf.args="--rate=300 --duration=60 --products=5000 --users=2000 --cart-items=20000"
+ * </pre>
+ * Options: --rate (req/s), --warmup and --duration (s), --max-in-flight, the dataset
+ * options of {@link DatasetSpec} (--products, --users, --cart-items, ...) and
+ * --mix=browse:30,categories:10,product:20,filter:15,add_to_cart:15,checkout:5,admin_orders:5.
+ * Reports go to target/load-test/.
+ */
+public final class LoadTestHarness {
+
+    private static final String DEFAULT_MIX =
+            "browse:30,categories:10,product:20,filter:15,add_to_cart:15,checkout:5,admin_orders:5";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--application.")) {
+                springArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+        }
+
+        EmbeddedPostgres postgres = null;
+        if (springArgs.stream().noneMatch(arg -> arg.startsWith("--spring.datasource.url="))) {
+            postgres = EmbeddedPostgres.builder().start();
+            try (Connection connection = postgres.getPostgresDatabase().getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("CREATE DATABASE veststore_load");
+            }
+            springArgs.add("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "veststore_load"));
+            springArgs.add("--spring.datasource.username=postgres");
+            springArgs.add("--spring.datasource.password=postgres");
+        }
+
+        try {
+            run(options, springArgs);
+        } finally {
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static void run(Map<String, String> options, List<String> springArgs) throws Exception {
+        List<String> appArgs = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--application.rate-limit.enabled=false",
+                "--logging.level.com.veststore=WARN",
+                "--logging.level.org.springframework.security=WARN"));
+        appArgs.addAll(springArgs);
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(VestStoreBackApplication.class)
+                .run(appArgs.toArray(String[]::new))) {
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+            // Stock élevé pour que les checkouts ne s'épuisent pas pendant le test
+            DatasetSpec spec = DatasetSpec.fromOptions(options,
+                    new DatasetSpec(20, 2000, 1000, 10_000, 1.1, 100_000, 42, 4));
+            Dataset dataset = new DatasetGenerator(context.getBean(DataSource.class), spec).generate();
+
+            LoadRun loadRun = new LoadRun(baseUrl, dataset, parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                    intOption(options, "rate", 200), intOption(options, "max-in-flight", 2000));
+
+            System.out.println("Warming up...");
+            loadRun.execute(Duration.ofSeconds(intOption(options, "warmup", 10)));
+
+            System.out.println("Measuring...");
+            Report report = loadRun.execute(Duration.ofSeconds(intOption(options, "duration", 60)));
+            report.print(System.out);
+            report.write(Path.of("target", "load-test"));
+        }
+    }
+
+    private static int intOption(Map<String, String> options, String name, int defaultValue) {
+        return Integer.parseInt(options.getOrDefault(name, String.valueOf(defaultValue)));
+    }
+
+    private static Map<Scenario, Integer> parseMix(String mix) {
+        Map<Scenario, Integer> weights = new EnumMap<>(Scenario.class);
+        for (String part : mix.split(",")) {
+            String[] pair = part.split(":");
+            weights.put(Scenario.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), Integer.parseInt(pair[1].trim()));
+        }
+        return weights;
+    }
+
+    private static final class LoadRun {
+        private final HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        private final String baseUrl;
+        private final Dataset dataset;
+        private final Scenario[] wheel;
+        private final int ratePerSecond;
+        private final int maxInFlight;
+
+        LoadRun(String baseUrl, Dataset dataset, Map<Scenario, Integer> weights,
+                int ratePerSecond, int maxInFlight) {
+            this.baseUrl = baseUrl;
+            this.dataset = dataset;
+            this.ratePerSecond = ratePerSecond;
+            this.maxInFlight = maxInFlight;
+            List<Scenario> slots = new ArrayList<>();
+            weights.forEach((scenario, weight) -> {
+                for (int i = 0; i < weight; i++) {
+                    slots.add(scenario);
+                }
+            });
+            this.wheel = slots.toArray(Scenario[]::new);
+        }
+
+        Report execute(Duration duration) throws InterruptedException {
+            Report report = new Report(duration);
+            AtomicInteger inFlight = new AtomicInteger();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            long start = System.nanoTime();
+            long end = start + duration.toNanos();
+            long meanIntervalNanos = 1_000_000_000L / ratePerSecond;
+            long intended = start;
+
+            try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+                while (intended < end) {
+                    // Arrivées de Poisson : intervalles exponentiels, indépendants des réponses
+                    intended += (long) (-Math.log(1 - random.nextDouble()) * meanIntervalNanos);
+                    long wait = intended - System.nanoTime();
+                    if (wait > 0) {
+                        LockSupport.parkNanos(wait);
+                    }
+
+                    Scenario scenario = wheel[random.nextInt(wheel.length)];
+                    EndpointStats stats = report.stats(scenario);
+                    if (inFlight.incrementAndGet() > maxInFlight) {
+                        inFlight.decrementAndGet();
+                        stats.dropped.incrementAndGet();
+                        continue;
+                    }
+
+                    long scheduledAt = intended;
+                    executor.submit(() -> {
+                        try {
+                            HttpResponse<Void> response = client.send(
+                                    scenario.build(baseUrl, dataset, ThreadLocalRandom.current()),
+                                    HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                stats.errors.incrementAndGet();
+                            }
+                        } catch (IOException e) {
+                            stats.errors.incrementAndGet();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            stats.histogram.recordValue(Math.max(0, System.nanoTime() - scheduledAt));
+                            inFlight.decrementAndGet();
+                        }
+                    });
+                }
+            }
+            return report;
+        }
+    }
+
+    private static final class EndpointStats {
+        final ConcurrentHistogram histogram = new ConcurrentHistogram(TimeUnit.MINUTES.toNanos(2), 3);
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong dropped = new AtomicLong();
+    }
+
+    private static final class Report {
+        private final Duration duration;
+        private final Map<Scenario, EndpointStats> stats = new EnumMap<>(Scenario.class);
+
+        Report(Duration duration) {
+            this.duration = duration;
+            for (Scenario scenario : Scenario.values()) {
+                stats.put(scenario, new EndpointStats());
+            }
+        }
+
+        EndpointStats stats(Scenario scenario) {
+            return stats.get(scenario);
+        }
+
+        void print(PrintStream out) {
+            out.printf(Locale.ROOT, "%-34s %8s %9s %7s %9s %9s %9s %9s%n",
+                    "endpoint", "requests", "req/s", "err %", "p50 ms", "p99 ms", "p999 ms", "max ms");
+            Histogram total = new Histogram(TimeUnit.MINUTES.toNanos(2), 3);
+            long totalErrors = 0;
+            for (Map.Entry<Scenario, EndpointStats> entry : stats.entrySet()) {
+                EndpointStats s = entry.getValue();
+                if (s.histogram.getTotalCount() == 0 && s.dropped.get() == 0) {
+                    continue;
+                }
+                total.add(s.histogram);
+                totalErrors += s.errors.get() + s.dropped.get();
+                printRow(out, entry.getKey().label(), s.histogram, s.errors.get() + s.dropped.get());
+            }
+            printRow(out, "TOTAL", total, totalErrors);
+        }
+
+        private void printRow(PrintStream out, String label, Histogram histogram, long errors) {
+            long count = histogram.getTotalCount();
+            out.printf(Locale.ROOT, "%-34s %8d %9.1f %7.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    label, count, count / (double) duration.toSeconds(),
+                    count == 0 ? 0 : 100.0 * errors / (count + errors),
+                    ms(histogram.getValueAtPercentile(50)), ms(histogram.getValueAtPercentile(99)),
+                    ms(histogram.getValueAtPercentile(99.9)), ms(histogram.getMaxValue()));
+        }
+
+        void write(Path directory) throws IOException {
+            Files.createDirectories(directory);
+            try (PrintWriter csv = new PrintWriter(Files.newBufferedWriter(directory.resolve("report.csv")))) {
+                csv.println("endpoint,requests,errors,dropped,throughput_rps,p50_ms,p99_ms,p999_ms,max_ms");
+                for (Map.Entry<Scenario, EndpointStats> entry : stats.entrySet()) {
+                    EndpointStats s = entry.getValue();
+                    Histogram h = s.histogram;
+                    csv.printf(Locale.ROOT, "%s,%d,%d,%d,%.1f,%.3f,%.3f,%.3f,%.3f%n", entry.getKey().label(),
+                            h.getTotalCount(), s.errors.get(), s.dropped.get(), h.getTotalCount() / (double) duration.toSeconds(),
+                            ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(99)),
+                            ms(h.getValueAtPercentile(99.9)), ms(h.getMaxValue()));
+
+                    // Distribution complète au format .hgrm (HdrHistogram plotter)
+                    try (PrintStream hgrm = new PrintStream(Files.newOutputStream(
+                            directory.resolve(entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm")))) {
+                        h.outputPercentileDistribution(hgrm, 1_000_000.0);
+                    }
+                }
+            }
+            System.out.println("Report written to " + directory.toAbsolutePath());
+        }
+
+        private static double ms(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+}
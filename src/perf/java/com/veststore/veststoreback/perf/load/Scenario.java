@@ -0,0 +1,93 @@
+package com.veststore.veststoreback.perf.load;
+
+import com.veststore.veststoreback.perf.dataset.Dataset;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * One request per scenario, so that arrivals map one-to-one onto requests
+ */
+enum Scenario {
+
+    BROWSE("GET /api/products/category/{id}") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random) {
+            return get(baseUrl + "/api/products/category/" + pick(data.categories(), random));
+        }
+    },
+    CATEGORIES("GET /api/categories") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random) {
+            return get(baseUrl + "/api/categories");
+        }
+    },
+    PRODUCT("GET /api/products/{id}") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random) {
+            return get(baseUrl + "/api/products/" + pick(data.products(), random));
+        }
+    },
+    FILTER("GET /api/products/filter") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random) {
+            int min = random.nextInt(100);
+            return get(baseUrl + "/api/products/filter?categoryId=" + pick(data.categories(), random)
+                    + "&size=" + SIZES[random.nextInt(SIZES.length)]
+                    + "&minPrice=" + min + "&maxPrice=" + (min + 50));
+        }
+    },
+    ADD_TO_CART("POST /api/cart/items") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random) {
+            String body = "{\"productId\":" + pick(data.products(), random) + ",\"quantity\":1,\"size\":\""
+                    + SIZES[random.nextInt(SIZES.length)] + "\",\"color\":\"noir\"}";
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/cart/items?userId=" + pick(data.users(), random)))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+        }
+    },
+    CHECKOUT("POST /api/cart/checkout") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random) {
+            return HttpRequest.newBuilder(URI.create(baseUrl + "/api/cart/checkout?userId=" + pick(data.users(), random)))
+                    .POST(HttpRequest.BodyPublishers.noBody());
+        }
+    },
+    ADMIN_ORDERS("GET /api/cart/admin/orders") {
+        @Override
+        HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random) {
+            return get(baseUrl + "/api/cart/admin/orders?status=VALIDEE");
+        }
+    };
+
+    private static final String[] SIZES = {"XS", "S", "M", "L", "XL", "XXL"};
+
+    private final String label;
+
+    Scenario(String label) {
+        this.label = label;
+    }
+
+    String label() {
+        return label;
+    }
+
+    abstract HttpRequest.Builder request(String baseUrl, Dataset data, ThreadLocalRandom random);
+
+    HttpRequest build(String baseUrl, Dataset data, ThreadLocalRandom random) {
+        return request(baseUrl, data, random).timeout(Duration.ofSeconds(30)).build();
+    }
+
+    private static HttpRequest.Builder get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET();
+    }
+
+    // Popularité biaisée : la moitié du trafic porte sur les 10 % premiers ids
+    private static long pick(Dataset.Range ids, ThreadLocalRandom random) {
+        int hot = Math.max(1, ids.count() / 10);
+        return ids.at(random.nextBoolean() ? random.nextInt(hot) : random.nextInt(ids.count()));
+    }
+}
@@ -0,0 +1,74 @@
+package com.veststore.veststoreback;
+
+import com.veststore.veststoreback.model.Category;
+import com.veststore.veststoreback.model.Product;
+import com.veststore.veststoreback.model.ProductSize;
+import com.veststore.veststoreback.repository.CategoryRepository;
+import com.veststore.veststoreback.repository.ProductRepository;
+import com.veststore.veststoreback.support.SqlStatementBudget;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class CatalogStatementBudgetTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Category category;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("Budget SQL");
+        category = categoryRepository.save(category);
+        for (int i = 0; i < 5; i++) {
+            Product p = new Product();
+            p.setName("Produit budget " + i);
+            p.setPrice(BigDecimal.TEN);
+            p.setSize(ProductSize.M);
+            p.setColor("noir");
+            p.setStock(20);
+            p.setCategory(category);
+            product = productRepository.save(p);
+        }
+        // Les lectures doivent aller en base, pas dans le contexte de persistance du test
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void productByIdIsASingleStatement() throws Exception {
+        SqlStatementBudget.assertAtMost(1, () ->
+                mockMvc.perform(get("/api/products/{id}", product.getId())).andExpect(status().isOk()));
+    }
+
+    @Test
+    void productsByCategoryDoNotGrowWithTheCategorySize() throws Exception {
+        SqlStatementBudget.assertAtMost(2, () ->
+                mockMvc.perform(get("/api/products/category/{id}", category.getId())).andExpect(status().isOk()));
+    }
+}
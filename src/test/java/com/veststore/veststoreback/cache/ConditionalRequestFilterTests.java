@@ -0,0 +1,184 @@
+package com.veststore.veststoreback.cache;
+
+import com.veststore.veststoreback.model.CatalogSyncState;
+import com.veststore.veststoreback.repository.CatalogSyncStateRepository;
+import com.veststore.veststoreback.service.CartVersions;
+import com.veststore.veststoreback.service.CatalogVersion;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ConditionalRequestFilterTests {
+
+    private final CatalogSyncStateRepository stateRepository = mock(CatalogSyncStateRepository.class);
+    private final CatalogVersion catalogVersion = new CatalogVersion(stateRepository);
+    private final CartVersions cartVersions = mock(CartVersions.class);
+    private final ConditionalRequestFilter filter = new ConditionalRequestFilter(catalogVersion, cartVersions);
+
+    @Test
+    void matchingEtagAnswers304WithoutReachingTheController() throws Exception {
+        String etag = get("/api/products", null).getHeader(HttpHeaders.ETAG);
+
+        MockFilterChain chain = new MockFilterChain();
+        MockHttpServletResponse response = get("/api/products", etag, chain);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    void catalogWriteInvalidatesTheEtag() throws Exception {
+        String etag = get("/api/products", null).getHeader(HttpHeaders.ETAG);
+        catalogVersion.changed();
+
+        MockHttpServletResponse response = get("/api/products", etag);
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(etag);
+    }
+
+    @Test
+    void gzipVariantEtagIsEchoedBackOn304() throws Exception {
+        String etag = get("/api/categories", null).getHeader(HttpHeaders.ETAG);
+        String gzipEtag = etag.substring(0, etag.length() - 1) + ConditionalRequestFilter.GZIP_ETAG_SUFFIX + "\"";
+
+        MockHttpServletResponse response = get("/api/categories", gzipEtag);
+
+        assertThat(response.getStatus()).isEqualTo(304);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(gzipEtag);
+    }
+
+    @Test
+    void weakEtagMatchesAndStarMatchesAnything() throws Exception {
+        String etag = get("/api/products", null).getHeader(HttpHeaders.ETAG);
+
+        assertThat(get("/api/products", "\"other\", W/" + etag).getStatus()).isEqualTo(304);
+        assertThat(get("/api/products", "*").getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void ifNoneMatchTakesPrecedenceOverIfModifiedSince() throws Exception {
+        MockHttpServletRequest request = request("/api/products", "\"stale\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, System.currentTimeMillis() + 3_600_000);
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void ifModifiedSinceValidatesUntilTheNextWrite() throws Exception {
+        long lastModified = get("/api/products", null).getDateHeader(HttpHeaders.LAST_MODIFIED);
+
+        assertThat(ifModifiedSince("/api/products", lastModified).getStatus()).isEqualTo(304);
+        assertThat(ifModifiedSince("/api/products", lastModified - 1000).getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    void writeSeenThroughTheSharedChangeLogInvalidatesValidators() throws Exception {
+        sharedState(10, null);
+        catalogVersion.refresh();
+        MockHttpServletResponse before = get("/api/products", null);
+        String etag = before.getHeader(HttpHeaders.ETAG);
+
+        // Écriture faite par une autre instance : seul le compteur partagé a bougé
+        Instant remoteWrite = Instant.ofEpochMilli(before.getDateHeader(HttpHeaders.LAST_MODIFIED)).plusSeconds(5);
+        sharedState(11, remoteWrite);
+        catalogVersion.refresh();
+
+        MockHttpServletResponse after = get("/api/products", etag);
+        assertThat(after.getStatus()).isEqualTo(200);
+        assertThat(after.getDateHeader(HttpHeaders.LAST_MODIFIED)).isEqualTo(remoteWrite.toEpochMilli() / 1000 * 1000);
+        assertThat(ifModifiedSince("/api/products", before.getDateHeader(HttpHeaders.LAST_MODIFIED)).getStatus())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void cartValidatorsFollowTheStoredCartVersion() throws Exception {
+        when(cartVersions.current(7L)).thenReturn(new CartVersions.Version(3, 1_000));
+        MockHttpServletResponse first = get("/api/cart/7", null);
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertThat(get("/api/cart/7", etag).getStatus()).isEqualTo(304);
+        assertThat(first.getHeader(HttpHeaders.CACHE_CONTROL)).isEqualTo("private, no-cache");
+
+        // Panier modifié sur une autre instance
+        long updatedAt = catalogVersion.lastModified() + 60_000;
+        when(cartVersions.current(7L)).thenReturn(new CartVersions.Version(4, updatedAt));
+
+        assertThat(get("/api/cart/7", etag).getStatus()).isEqualTo(200);
+        assertThat(ifModifiedSince("/api/cart/7", first.getDateHeader(HttpHeaders.LAST_MODIFIED)).getStatus())
+                .isEqualTo(200);
+        assertThat(ifModifiedSince("/api/cart/7", updatedAt).getStatus()).isEqualTo(304);
+    }
+
+    @Test
+    void otherFormatGetsItsOwnEtag() throws Exception {
+        String json = get("/api/products", null).getHeader(HttpHeaders.ETAG);
+
+        MockHttpServletRequest request = request("/api/products", json);
+        request.addHeader(HttpHeaders.ACCEPT, "application/vnd.veststore.v1+cbor");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertThat(response.getStatus()).isEqualTo(200);
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isNotEqualTo(json);
+    }
+
+    @Test
+    void writesAndOtherPathsPassThrough() throws Exception {
+        MockHttpServletRequest post = new MockHttpServletRequest("POST", "/api/products");
+        MockHttpServletResponse postResponse = new MockHttpServletResponse();
+        filter.doFilter(post, postResponse, new MockFilterChain());
+        assertThat(postResponse.getHeader(HttpHeaders.ETAG)).isNull();
+
+        MockHttpServletResponse other = get("/api/users/1", null);
+        assertThat(other.getHeader(HttpHeaders.ETAG)).isNull();
+    }
+
+    private MockHttpServletResponse ifModifiedSince(String path, long date) throws ServletException, IOException {
+        MockHttpServletRequest request = request(path, null);
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, date);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private void sharedState(long lastSeq, Instant lastChangedAt) {
+        CatalogSyncState state = new CatalogSyncState();
+        state.setLastSeq(lastSeq);
+        state.setLastChangedAt(lastChangedAt);
+        when(stateRepository.findById(CatalogSyncState.ID)).thenReturn(Optional.of(state));
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch) throws ServletException, IOException {
+        return get(path, ifNoneMatch, new MockFilterChain());
+    }
+
+    private MockHttpServletResponse get(String path, String ifNoneMatch, MockFilterChain chain)
+            throws ServletException, IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, ifNoneMatch), response, chain);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,61 @@
+package com.veststore.veststoreback.cache;
+
+import org.hibernate.cache.spi.entry.CacheEntry;
+import org.junit.jupiter.api.Test;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecondLevelCacheWeigherTests {
+
+    private final SecondLevelCacheWeigher weigher = new SecondLevelCacheWeigher();
+
+    @Test
+    void imageBytesDominateTheWeight() {
+        int withoutImage = weigher.weigh(1L, entry("Veste", BigDecimal.TEN, null));
+        int withImage = weigher.weigh(1L, entry("Veste", BigDecimal.TEN, new byte[5 * 1024 * 1024]));
+
+        assertThat(withImage - withoutImage).isEqualTo(5 * 1024 * 1024);
+        assertThat(withoutImage).isLessThan(1024);
+    }
+
+    @Test
+    void textCountsTwoBytesPerChar() {
+        int shortName = weigher.weigh(1L, entry("a", null, null));
+        int longName = weigher.weigh(1L, entry("a".repeat(101), null, null));
+
+        assertThat(longName - shortName).isEqualTo(200);
+    }
+
+    @Test
+    void unknownValuesGetTheFixedOverhead() {
+        assertThat(weigher.weigh("key", "timestamp")).isPositive();
+        assertThat(weigher.weigh("key", 42L)).isEqualTo(weigher.weigh("key", new Object()));
+    }
+
+    private static CacheEntry entry(Serializable... state) {
+        return new CacheEntry() {
+            @Override
+            public boolean isReferenceEntry() {
+                return false;
+            }
+
+            @Override
+            public String getSubclass() {
+                return "Product";
+            }
+
+            @Override
+            public Object getVersion() {
+                return null;
+            }
+
+            @Override
+            public Serializable[] getDisassembledState() {
+                return state;
+            }
+        };
+    }
+}
@@ -0,0 +1,106 @@
+package com.veststore.veststoreback.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketTests {
+
+    private static final long SECOND = 1_000_000_000L;
+    private static final long START = 42 * SECOND;
+
+    @Test
+    void burstUpToCapacityThenRejects() {
+        TokenBucket bucket = new TokenBucket(5, 1);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(START)).isZero();
+        }
+        assertThat(bucket.tryConsume(START)).isEqualTo(SECOND);
+    }
+
+    @Test
+    void waitReportsTimeUntilNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 4);
+
+        assertThat(bucket.tryConsume(START)).isZero();
+        assertThat(bucket.tryConsume(START + SECOND / 10)).isEqualTo(SECOND / 4 - SECOND / 10);
+        assertThat(bucket.tryConsume(START + SECOND / 4)).isZero();
+    }
+
+    @Test
+    void refillsAtSustainedRate() {
+        TokenBucket bucket = new TokenBucket(2, 10);
+        long now = START;
+        assertThat(bucket.tryConsume(now)).isZero();
+        assertThat(bucket.tryConsume(now)).isZero();
+        assertThat(bucket.tryConsume(now)).isPositive();
+
+        // Un jeton toutes les 100 ms, jamais plus
+        for (int i = 0; i < 20; i++) {
+            now += SECOND / 10;
+            assertThat(bucket.tryConsume(now)).isZero();
+            assertThat(bucket.tryConsume(now)).isPositive();
+        }
+    }
+
+    @Test
+    void idleTimeDoesNotAccumulateBeyondCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+        assertThat(bucket.tryConsume(START)).isZero();
+
+        long later = START + 3600 * SECOND;
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryConsume(later)).isZero();
+        }
+        assertThat(bucket.tryConsume(later)).isPositive();
+    }
+
+    @Test
+    void rejectedRequestsDoNotConsume() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        assertThat(bucket.tryConsume(START)).isZero();
+        for (int i = 0; i < 100; i++) {
+            assertThat(bucket.tryConsume(START + SECOND / 2)).isPositive();
+        }
+        assertThat(bucket.tryConsume(START + SECOND)).isZero();
+    }
+
+    @Test
+    void concurrentCallersNeverExceedCapacity() throws Exception {
+        TokenBucket bucket = new TokenBucket(50, 0.001);
+        AtomicInteger accepted = new AtomicInteger();
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < 1000; i++) {
+                executor.submit(() -> {
+                    if (bucket.tryConsume(START) == 0) {
+                        accepted.incrementAndGet();
+                    }
+                });
+            }
+        }
+        assertThat(accepted).hasValue(50);
+    }
+
+    @Test
+    void idleSinceTracksLastAccess() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        bucket.tryConsume(START);
+
+        assertThat(bucket.isIdleSince(START + 1)).isTrue();
+        assertThat(bucket.isIdleSince(START)).isFalse();
+    }
+
+    @Test
+    void rejectsLimitsThatWouldDivideByZero() {
+        assertThatThrownBy(() -> new TokenBucket(10, 0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(10, 1e-12)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(10, Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TokenBucket(0, 1)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,103 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.model.CatalogChange;
+import com.veststore.veststoreback.model.CatalogEntityType;
+import com.veststore.veststoreback.model.CatalogSyncState;
+import com.veststore.veststoreback.repository.CatalogChangeRepository;
+import com.veststore.veststoreback.repository.CatalogSyncStateRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Annulé à la fin de chaque test : numérotation et compaction comprises
+@SpringBootTest
+@Transactional
+class CatalogChangeLogTests {
+
+    // Identifiants négatifs : jamais ceux d'une vraie entité du catalogue
+    private static final long CATEGORY_ID = -1;
+    private static final long PRODUCT_ID = -2;
+
+    @Autowired
+    private CatalogChangeLog changeLog;
+
+    @Autowired
+    private CatalogChangeRepository changeRepository;
+
+    @Autowired
+    private CatalogSyncStateRepository stateRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private long before;
+
+    @BeforeEach
+    void setUp() {
+        changeLog.initialize();
+        changeLog.assignSequence();
+        before = state().getLastSeq();
+    }
+
+    @Test
+    void sequencerNumbersCommittedEntriesAfterTheLastSeq() {
+        changeLog.categoryChanged(CATEGORY_ID);
+        changeLog.productChanged(PRODUCT_ID);
+
+        changeLog.assignSequence();
+
+        assertThat(changesSinceSetUp()).extracting(CatalogChange::getSeq).containsExactly(before + 1, before + 2);
+        assertThat(state().getLastSeq()).isEqualTo(before + 2);
+    }
+
+    @Test
+    void compactionKeepsOnlyTheNewestEntryOfEachEntity() {
+        changeLog.categoryChanged(CATEGORY_ID);
+        changeLog.productChanged(PRODUCT_ID);
+        changeLog.categoryChanged(CATEGORY_ID);
+        changeLog.categoryDeleted(CATEGORY_ID);
+        changeLog.assignSequence();
+
+        changeLog.compact();
+
+        List<CatalogChange> remaining = changesSinceSetUp();
+        assertThat(remaining).extracting(CatalogChange::getEntityId).containsExactly(PRODUCT_ID, CATEGORY_ID);
+        CatalogChange category = remaining.get(1);
+        assertThat(category.getEntityType()).isEqualTo(CatalogEntityType.CATEGORY);
+        assertThat(category.isDeleted()).isTrue();
+        assertThat(category.getSeq()).isEqualTo(before + 4);
+        // Tombstone récent : pas encore purgé, l'horizon ne bouge pas
+        assertThat(state().getHorizon()).isLessThanOrEqualTo(before);
+    }
+
+    @Test
+    void compactionKeepsAnEntityThatChangedOnce() {
+        changeLog.productChanged(PRODUCT_ID);
+        changeLog.assignSequence();
+
+        changeLog.compact();
+
+        assertThat(changesSinceSetUp()).extracting(CatalogChange::getEntityId).containsExactly(PRODUCT_ID);
+    }
+
+    // Les mises à jour natives ne touchent pas les entités déjà chargées : relire depuis la base
+    private List<CatalogChange> changesSinceSetUp() {
+        entityManager.flush();
+        entityManager.clear();
+        return changeRepository.findSequencedAfter(before, PageRequest.of(0, 100));
+    }
+
+    private CatalogSyncState state() {
+        entityManager.flush();
+        entityManager.clear();
+        return stateRepository.findById(CatalogSyncState.ID).orElseThrow();
+    }
+}
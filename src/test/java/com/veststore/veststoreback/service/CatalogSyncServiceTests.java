@@ -0,0 +1,171 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.dto.CatalogChangesDto;
+import com.veststore.veststoreback.model.CatalogChange;
+import com.veststore.veststoreback.model.CatalogEntityType;
+import com.veststore.veststoreback.model.CatalogSyncState;
+import com.veststore.veststoreback.model.Category;
+import com.veststore.veststoreback.repository.CatalogChangeRepository;
+import com.veststore.veststoreback.repository.CatalogSyncStateRepository;
+import com.veststore.veststoreback.repository.CategoryRepository;
+import com.veststore.veststoreback.repository.ProductRepository;
+import com.veststore.veststoreback.util.FieldSelection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogSyncServiceTests {
+
+    private final CatalogChangeRepository changeRepository = mock(CatalogChangeRepository.class);
+    private final CatalogSyncStateRepository stateRepository = mock(CatalogSyncStateRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final CatalogSyncService syncService = new CatalogSyncService(changeRepository, stateRepository,
+            productRepository, categoryRepository, 500, 5000);
+    private final FieldSelection fields = FieldSelection.all(ProductRepository.FIELDS);
+
+    // Journal compacté simulé, trié par seq
+    private final List<CatalogChange> log = new ArrayList<>();
+    private final CatalogSyncState state = new CatalogSyncState();
+
+    @BeforeEach
+    void setUp() {
+        when(stateRepository.findById(CatalogSyncState.ID)).thenReturn(Optional.of(state));
+        when(changeRepository.findSequencedAfter(anyLong(), any(Pageable.class))).thenAnswer(invocation -> {
+            long since = invocation.getArgument(0);
+            Pageable page = invocation.getArgument(1);
+            return log.stream().filter(change -> change.getSeq() > since).limit(page.getPageSize()).toList();
+        });
+        when(productRepository.findFieldsByIds(any(), any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().sorted().map(id -> Map.<String, Object>of("id", id)).toList();
+        });
+        when(categoryRepository.findAllById(any())).thenAnswer(invocation -> {
+            List<Category> categories = new ArrayList<>();
+            for (Long id : invocation.<Iterable<Long>>getArgument(0)) {
+                Category category = new Category();
+                category.setId(id);
+                categories.add(category);
+            }
+            return categories;
+        });
+    }
+
+    @Test
+    void cursorBehindTheHorizonStartsOverFromTheBeginning() {
+        append(10, CatalogEntityType.PRODUCT, 1, false);
+        append(20, CatalogEntityType.PRODUCT, 2, false);
+        state.setHorizon(15);
+        state.setLastSeq(20);
+
+        CatalogChangesDto page = syncService.getChanges(12L, null, fields);
+
+        assertThat(page.isReset()).isTrue();
+        assertThat(productIds(page)).containsExactly(1L, 2L);
+        assertThat(page.getCursor()).isEqualTo(20);
+    }
+
+    @Test
+    void cursorAheadOfTheLogStartsOverAndCursorAtTheHorizonDoesNot() {
+        append(10, CatalogEntityType.PRODUCT, 1, false);
+        append(20, CatalogEntityType.PRODUCT, 2, false);
+        state.setHorizon(10);
+        state.setLastSeq(20);
+
+        assertThat(syncService.getChanges(25L, null, fields).isReset()).isTrue();
+        assertThat(syncService.getChanges(null, null, fields).isReset()).isTrue();
+
+        CatalogChangesDto page = syncService.getChanges(10L, null, fields);
+        assertThat(page.isReset()).isFalse();
+        assertThat(productIds(page)).containsExactly(2L);
+    }
+
+    @Test
+    void upToDateCursorGetsAnEmptyPageWithTheSameCursor() {
+        append(10, CatalogEntityType.PRODUCT, 1, false);
+        state.setLastSeq(10);
+
+        CatalogChangesDto page = syncService.getChanges(10L, null, fields);
+
+        assertThat(page.isReset()).isFalse();
+        assertThat(page.isHasMore()).isFalse();
+        assertThat(page.getCursor()).isEqualTo(10);
+        assertThat(page.getProducts()).isEmpty();
+    }
+
+    @Test
+    void pagesFollowTheCursorAndReturnEachEntityOncePerPage() {
+        append(1, CatalogEntityType.PRODUCT, 1, false);
+        append(2, CatalogEntityType.PRODUCT, 2, false);
+        append(3, CatalogEntityType.PRODUCT, 1, false);
+        append(4, CatalogEntityType.CATEGORY, 7, false);
+        append(5, CatalogEntityType.CATEGORY, 7, true);
+        append(6, CatalogEntityType.PRODUCT, 3, false);
+        append(7, CatalogEntityType.PRODUCT, 2, true);
+        state.setLastSeq(7);
+
+        List<Long> cursors = new ArrayList<>();
+        Set<Long> deletedProducts = new HashSet<>();
+        Set<Long> deletedCategories = new HashSet<>();
+        long cursor = 0;
+        CatalogChangesDto page;
+        do {
+            page = syncService.getChanges(cursor, 3, fields);
+            List<Object> upserted = productIds(page);
+            assertThat(upserted).doesNotHaveDuplicates();
+            assertThat(page.getDeletedProductIds()).doesNotHaveDuplicates().noneMatch(upserted::contains);
+            assertThat(page.getDeletedCategoryIds()).doesNotHaveDuplicates();
+            deletedProducts.addAll(page.getDeletedProductIds());
+            deletedCategories.addAll(page.getDeletedCategoryIds());
+            cursor = page.getCursor();
+            cursors.add(cursor);
+        } while (page.isHasMore());
+
+        assertThat(cursors).containsExactly(3L, 6L, 7L);
+        assertThat(deletedProducts).containsExactly(2L);
+        assertThat(deletedCategories).containsExactly(7L);
+    }
+
+    @Test
+    void latestEntryWinsWithinAPage() {
+        append(1, CatalogEntityType.PRODUCT, 1, false);
+        append(2, CatalogEntityType.PRODUCT, 1, true);
+        append(3, CatalogEntityType.CATEGORY, 4, true);
+        append(4, CatalogEntityType.CATEGORY, 4, false);
+        state.setLastSeq(4);
+
+        CatalogChangesDto page = syncService.getChanges(0L, null, fields);
+
+        assertThat(page.getProducts()).isEmpty();
+        assertThat(page.getDeletedProductIds()).containsExactly(1L);
+        assertThat(page.getCategories()).extracting(category -> category.getId()).containsExactly(4L);
+        assertThat(page.getDeletedCategoryIds()).isEmpty();
+    }
+
+    private void append(long seq, CatalogEntityType type, long entityId, boolean deleted) {
+        CatalogChange change = new CatalogChange();
+        change.setSeq(seq);
+        change.setEntityType(type);
+        change.setEntityId(entityId);
+        change.setDeleted(deleted);
+        log.add(change);
+    }
+
+    private static List<Object> productIds(CatalogChangesDto page) {
+        return page.getProducts().stream().map(product -> product.get("id")).toList();
+    }
+}
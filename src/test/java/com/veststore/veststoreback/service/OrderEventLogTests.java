@@ -0,0 +1,96 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.model.CartStatus;
+import com.veststore.veststoreback.model.OrderEvent;
+import com.veststore.veststoreback.repository.OrderEventRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+class OrderEventLogTests {
+
+    @Autowired
+    private OrderEventLog eventLog;
+
+    @Autowired
+    private OrderEventRepository eventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    // Entrées validées laissées en place : la numérotation repart de MAX(seq), purge() les retire
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void entryCommittedLateIsNumberedAfterTheEntriesCommittedBeforeIt() throws Exception {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+
+        // Inséré en premier (identifiant plus petit) mais validé en dernier
+        Future<Long> late = executor.submit(() -> transaction.execute(status -> {
+            Long id = eventRepository.save(newEvent()).getId();
+            inserted.countDown();
+            await(commit);
+            return id;
+        }));
+        assertThat(inserted.await(10, TimeUnit.SECONDS)).isTrue();
+        Long early = transaction.execute(status -> eventRepository.save(newEvent()).getId());
+
+        eventLog.assignSequence();
+        assertThat(seqOf(early)).isNotNull();
+
+        commit.countDown();
+        Long lateId = late.get(10, TimeUnit.SECONDS);
+        eventLog.assignSequence();
+
+        assertThat(lateId).isLessThan(early);
+        assertThat(seqOf(lateId)).isGreaterThan(seqOf(early));
+        assertThat(eventLog.getLastSeq()).isGreaterThanOrEqualTo(seqOf(lateId));
+    }
+
+    private Long seqOf(Long id) {
+        return eventRepository.findById(id).orElseThrow().getSeq();
+    }
+
+    private OrderEvent newEvent() {
+        OrderEvent event = new OrderEvent();
+        // Valeurs négatives : jamais confondues avec de vrais articles
+        event.setCartItemId(-System.nanoTime());
+        event.setUserId(-1L);
+        event.setProductId(-1L);
+        event.setQuantity(1);
+        event.setStatus(CartStatus.EN_ATTENTE);
+        event.setCreatedAt(Instant.now());
+        return event;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for the test");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.veststore.veststoreback.service;
+
+import com.veststore.veststoreback.controller.OrderFeedController;
+import com.veststore.veststoreback.dto.OrderEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class OrderFeedTests {
+
+    private static final int MAX_REPLAY = 3;
+
+    private final OrderEventLog eventLog = mock(OrderEventLog.class);
+    private final OrderFeed feed = new OrderFeed(eventLog, new SimpleMeterRegistry(), 10, MAX_REPLAY, 64, 60_000);
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new OrderFeedController(feed)).build();
+
+    @AfterEach
+    void shutdown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void firstConnectionStartsWithTheCurrentHead() throws Exception {
+        when(eventLog.getLastSeq()).thenReturn(42L);
+
+        MockHttpServletResponse response = connect(null);
+
+        assertThat(awaitEvents(response, 1)).containsExactly("42");
+    }
+
+    @Test
+    void reconnectReplaysTheMissedEvents() throws Exception {
+        log(1, 10);
+        when(eventLog.findAfter(7, MAX_REPLAY + 1)).thenReturn(List.of(event(8), event(9), event(10)));
+
+        MockHttpServletResponse response = connect(7L);
+        feed.onOrderEvent(event(11));
+
+        assertThat(awaitEvents(response, 4)).containsExactly("order 8", "order 9", "order 10", "order 11");
+    }
+
+    @Test
+    void reconnectBehindTheOldestKeptEventGetsReset() throws Exception {
+        log(50, 100);
+
+        MockHttpServletResponse response = connect(10L);
+
+        assertThat(awaitEvents(response, 1)).containsExactly("reset 100");
+        verify(eventLog, never()).findAfter(anyLong(), anyInt());
+    }
+
+    @Test
+    void reconnectTooFarBehindForTheReplayGetsReset() throws Exception {
+        log(1, 100);
+        when(eventLog.findAfter(90, MAX_REPLAY + 1)).thenReturn(List.of(event(91), event(92), event(93), event(94)));
+
+        MockHttpServletResponse response = connect(90L);
+
+        assertThat(awaitEvents(response, 1)).containsExactly("reset 100");
+    }
+
+    @Test
+    void eventsPublishedDuringReplayAreSentOnceAndInOrder() throws Exception {
+        log(1, 6);
+        // Publiés pendant la relecture : 7 est aussi relu depuis le journal, 8 ne l'est pas
+        when(eventLog.findAfter(5, MAX_REPLAY + 1)).thenAnswer(invocation -> {
+            feed.onOrderEvent(event(7));
+            feed.onOrderEvent(event(8));
+            return List.of(event(6), event(7));
+        });
+
+        MockHttpServletResponse response = connect(5L);
+        feed.onOrderEvent(event(8));
+        feed.onOrderEvent(event(9));
+
+        assertThat(awaitEvents(response, 4)).containsExactly("order 6", "order 7", "order 8", "order 9");
+    }
+
+    private void log(long firstSeq, long lastSeq) {
+        when(eventLog.getFirstSeq()).thenReturn(firstSeq);
+        when(eventLog.getLastSeq()).thenReturn(lastSeq);
+    }
+
+    private MockHttpServletResponse connect(Long lastEventId) throws Exception {
+        return mockMvc.perform(lastEventId == null
+                        ? get("/api/admin/orders/stream")
+                        : get("/api/admin/orders/stream").header("Last-Event-ID", lastEventId))
+                .andReturn().getResponse();
+    }
+
+    /**
+     * Waits for {@code count} events written by the sender threads, then a little longer to
+     * catch any duplicate. Each event reads "name id", or just "id" for an unnamed event.
+     */
+    private static List<String> awaitEvents(MockHttpServletResponse response, int count) throws Exception {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (parse(response).size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        return parse(response);
+    }
+
+    private static List<String> parse(MockHttpServletResponse response) throws Exception {
+        List<String> events = new ArrayList<>();
+        for (String block : response.getContentAsString().split("\n\n")) {
+            String id = null;
+            String name = null;
+            for (String line : block.split("\n")) {
+                if (line.startsWith("id:")) {
+                    id = line.substring(3);
+                } else if (line.startsWith("event:")) {
+                    name = line.substring(6);
+                }
+            }
+            if (id != null) {
+                events.add(name == null ? id : name + " " + id);
+            }
+        }
+        return events;
+    }
+
+    private static OrderEventDto event(long seq) {
+        OrderEventDto event = new OrderEventDto();
+        event.setId(seq);
+        event.setCartItemId(seq);
+        return event;
+    }
+}
@@ -0,0 +1,41 @@
+package com.veststore.veststoreback.support;
+
+import com.veststore.veststoreback.config.SqlTrace;
+
+import java.util.stream.Collectors;
+
+/**
+ * Asserts how many SQL statements a piece of code may issue, typically one MockMvc call.
+ * The request's own trace joins the one opened here, so every statement is counted.
+ * <pre>
+ * SqlStatementBudget.assertAtMost(2, () -> mockMvc.perform(get("/api/products/{id}", id)));
+ * </pre>
+ */
+public final class SqlStatementBudget {
+
+    private SqlStatementBudget() {
+    }
+
+    public static SqlTrace measure(ThrowingRunnable action) throws Exception {
+        try (SqlTrace trace = SqlTrace.startRecordingAll()) {
+            action.run();
+            return trace;
+        }
+    }
+
+    public static SqlTrace assertAtMost(int budget, ThrowingRunnable action) throws Exception {
+        SqlTrace trace = measure(action);
+        if (trace.getStatementCount() > budget) {
+            throw new AssertionError("Expected at most " + budget + " SQL statements but " + trace.getStatementCount()
+                    + " were executed:" + trace.getStatements().stream()
+                    .map(statement -> "\n  " + statement.sql())
+                    .collect(Collectors.joining()));
+        }
+        return trace;
+    }
+
+    @FunctionalInterface
+    public interface ThrowingRunnable {
+        void run() throws Exception;
+    }
+}
@@ -0,0 +1,62 @@
+package com.veststore.veststoreback.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BloomFilterTests {
+
+    @Test
+    void neverForgetsAnInsertedValue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+
+        assertThat(IntStream.range(0, 10_000))
+                .allMatch(i -> filter.mightContain("user" + i + "@example.com"));
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTarget() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("user" + i + "@example.com"));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("other" + i + "@example.com"))
+                .count();
+
+        assertThat(falsePositives).isLessThan(2_000);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(100, 0.01);
+
+        assertThat(filter.mightContain("")).isFalse();
+        assertThat(filter.mightContain("a@b.c")).isFalse();
+    }
+
+    @Test
+    void handlesNonAsciiAndTinySizes() {
+        BloomFilter filter = new BloomFilter(0, 0.5);
+        filter.put("élodie@exemple.fr");
+
+        assertThat(filter.mightContain("élodie@exemple.fr")).isTrue();
+    }
+
+    @Test
+    void concurrentPutsAreAllVisible() throws Exception {
+        BloomFilter filter = new BloomFilter(50_000, 0.01);
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int t = 0; t < 8; t++) {
+                int offset = t * 5_000;
+                executor.submit(() -> IntStream.range(offset, offset + 5_000).forEach(i -> filter.put("k" + i)));
+            }
+        }
+
+        assertThat(IntStream.range(0, 40_000)).allMatch(i -> filter.mightContain("k" + i));
+    }
+}
@@ -0,0 +1,145 @@
+package com.veststore.veststoreback.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTests {
+
+    private static final int WAITERS = 8;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+            loads.incrementAndGet();
+            await(release);
+            return "product-1";
+        }));
+        awaitInFlight(flight);
+        List<Future<String>> waiters = submitWaiters(flight, () -> {
+            loads.incrementAndGet();
+            return "second load";
+        });
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+        for (Future<String> waiter : waiters) {
+            assertThat(waiter.get(5, TimeUnit.SECONDS)).isEqualTo("product-1");
+        }
+        assertThat(loads).hasValue(1);
+        assertThat(flight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void loaderExceptionReachesEveryWaiter() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("database down");
+
+        Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+            await(release);
+            throw failure;
+        }));
+        awaitInFlight(flight);
+        List<Future<String>> waiters = submitWaiters(flight, () -> "second load");
+        release.countDown();
+
+        for (Future<String> call : concat(leader, waiters)) {
+            assertThatThrownBy(() -> call.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(flight.inFlightCount()).isZero();
+    }
+
+    @Test
+    void waiterPastTheTimeoutLoadsOnItsOwn() throws Exception {
+        SingleFlight<Long, String> flight = new SingleFlight<>(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+
+        Future<String> leader = executor.submit(() -> flight.execute(1L, () -> {
+            await(release);
+            return "slow load";
+        }));
+        awaitInFlight(flight);
+
+        // Le meneur est toujours bloqué : l'appelant obtient son propre résultat au lieu d'une erreur
+        assertThat(flight.execute(1L, () -> "own load")).isEqualTo("own load");
+        assertThat(leader.isDone()).isFalse();
+
+        release.countDown();
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("slow load");
+    }
+
+    @Test
+    void completedLoadIsNotCached() {
+        SingleFlight<Long, Integer> flight = new SingleFlight<>(Duration.ofSeconds(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        flight.execute(1L, loads::incrementAndGet);
+        flight.execute(1L, loads::incrementAndGet);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private List<Future<String>> submitWaiters(SingleFlight<Long, String> flight,
+                                               Supplier<String> loader) throws InterruptedException {
+        List<Future<String>> waiters = new ArrayList<>();
+        for (int i = 0; i < WAITERS; i++) {
+            waiters.add(executor.submit(() -> flight.execute(1L, loader)));
+        }
+        // Laisse aux appelants le temps de trouver le chargement en cours
+        Thread.sleep(100);
+        return waiters;
+    }
+
+    private static void awaitInFlight(SingleFlight<?, ?> flight) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.inFlightCount() == 0) {
+            if (System.nanoTime() > deadline) {
+                throw new AssertionError("Leader never started");
+            }
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> List<T> concat(T first, List<T> rest) {
+        List<T> all = new ArrayList<>(rest);
+        all.add(0, first);
+        return all;
+    }
+}